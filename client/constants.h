@@ -16,6 +16,9 @@
 // Maximum supported size for a line sent by the server
 #define MAX_INPUT_LINE_SIZE 512
 
+// Maximum amount of buffered binary input, a frame must never be larger than this
+#define MAX_INPUT_FRAME_BUFFER 65536
+
 // Default jump in the case of speed rates of the form 0/n, n != 0
 #define JUMP_DEFAULT 1
 
@@ -44,12 +47,18 @@
 #define CMD_RELEASE     "release"
 #define CMD_PUT         "put"
 #define CMD_DELETE      "delete"
+#define CMD_ERASE       "erase"
 #define CMD_STATS       "stats"
 #define CMD_HIGHLIGHT   "highlight"
 #define CMD_UNHIGHLIGHT "unhighlight"
+#define CMD_RESYNC      "resync"
+#define CMD_RESET       "reset"
 #define CMD_UNKNOWN     "unknown"
 #define CMD_ID          "id"
 #define CMD_SEQUENCE    "seq"
+#define CMD_MASK        "mask"
+#define CMD_CELLS       "cells"
+#define CMD_PARENT      "parent"
 #define CMD_X           "x"
 #define CMD_Y           "y"
 #define CMD_Z           "z"
@@ -59,6 +68,15 @@
 #define CMD_GAMES       "games"
 #define CMD_LIVES       "lives"
 #define CMD_SCORE       "score"
+#define CMD_CODEC       "codec"
+#define CMD_CODECS      "codecs"
+#define CMD_AUTHORITY   "authority"
+
+// Wire encodings that can be negotiated with the server
+#define CODEC_BINARY "binary"
+
+// Side that simulates the motion of entities
+#define AUTHORITY_SERVER "server"
 
 // Key strings used in the protocol with the server
 #define KEY_LEFT   "left"
@@ -87,7 +105,9 @@
 #define CMDLINE_OPT_FULLSCREEN      'f'
 #define CMDLINE_FULLSCREEN_FAKE     "fullscreen-fake"
 #define CMDLINE_OPT_FULLSCREEN_FAKE 'F'
-#define CMDLINE_ALL_SHORTS          "hvfF"
+#define CMDLINE_JSON                "json"
+#define CMDLINE_OPT_JSON            'j'
+#define CMDLINE_ALL_SHORTS          "hvfFj"
 
 // Empirical constant parameters for vectors
 #define DEFAULT_VEC_CAPACITY 4
@@ -79,6 +79,34 @@ bool move_on_tick(int *coordinate, const struct ratio *speed)
 	return false;
 }
 
+/**
+ * Computes where an entity is on screen, which for members of a formation is the formation's position plus
+ * their offset
+ * @param entity entity to place
+ * @param x output parameter for the horizontal screen coordinate
+ * @param y output parameter for the vertical screen coordinate
+ * @return whether the entity can be placed
+ */
+bool entity_origin(const struct entity *entity, int *x, int *y)
+{
+	*x = entity->x;
+	*y = entity->y;
+
+	if(entity->has_parent)
+	{
+		const struct entity *parent = hash_map_get(&game.entities, entity->parent);
+		if(!parent)
+		{
+			return false;
+		}
+
+		*x += parent->x;
+		*y += parent->y;
+	}
+
+	return true;
+}
+
 /**
  * Updates the statistics label on the screen
  * @param lives number of lives remaining
@@ -185,10 +213,17 @@ void handle_click(const SDL_MouseButtonEvent *event)
 	{
 		int id = hash_map_iter_key(&iter);
 		struct entity *entity = hash_map_iter_value(&iter);
-		struct sprite *sprite = hash_map_get(&game.sprites, *(int*)vec_get(&entity->sequence, entity->next_sprite));
 
-		if(click_x < entity->x || click_x >= entity->x + sprite->surface->w
-		|| click_y < entity->y || click_y >= entity->y + sprite->surface->h)
+		// Entities without sprites are never drawn
+		int x, y;
+		if(entity->sequence.length == 0 || !entity_origin(entity, &x, &y))
+		{
+			continue;
+		}
+
+		struct sprite *sprite = hash_map_get(&game.sprites, *(int*)vec_get(&entity->sequence, entity->next_sprite));
+		if(click_x < x || click_x >= x + sprite->surface->w
+		|| click_y < y || click_y >= y + sprite->surface->h)
 		{
             // Outside the entity area
 			continue;
@@ -307,11 +342,44 @@ void start_or_watch_game(struct json_object *message)
 		game_id = select_game(client_id, games);
 	}
 
+	// The binary codec is chosen whenever the server offers it (older servers omit the list)
+	bool binary = false;
+	struct json_object *codecs = expect_key(message, CMD_CODECS, json_type_array, false);
+	for(size_t i = 0; codecs && !(game.flags & GAME_FLAG_JSON_ONLY) && i < json_object_array_length(codecs); ++i)
+	{
+		const char *codec = json_object_get_string(json_object_array_get_idx(codecs, i));
+		if(codec && strcmp(codec, CODEC_BINARY) == 0)
+		{
+			binary = true;
+			break;
+		}
+	}
+
+	// Servers that simulate on their own only want key events (older servers omit the authority)
+	struct json_object *authority = expect_key(message, CMD_AUTHORITY, json_type_string, false);
+	if(authority && strcmp(json_object_get_string(authority), AUTHORITY_SERVER) == 0)
+	{
+		game.flags |= GAME_FLAG_SERVER_AUTHORITY;
+	}
+
 	struct key_value items[] =
 	{
-		{CMD_INIT, json_object_new_int(game_id)},
-		{NULL,     NULL}
+		{CMD_INIT,  json_object_new_int(game_id)},
+		{CMD_CODEC, binary ? json_object_new_string(CODEC_BINARY) : NULL},
+		{NULL,      NULL}
 	};
 
+	// Without a choice, the codec key is left out
+	if(!binary)
+	{
+		items[1] = items[2];
+	}
+
 	transmit(items);
+
+	// Everything the server sends from now on is binary
+	if(binary)
+	{
+		game.flags |= GAME_FLAG_BINARY;
+	}
 }
\ No newline at end of file
@@ -41,21 +41,23 @@ static void render(const struct sprite *sprite, int x, int y)
 }
 
 /**
- * Renders an entity at its position
+ * Renders an entity at a screen position
  * @param entity
  * @param sprite
+ * @param x
+ * @param y
  */
-static void render_entity(const struct entity *entity, const struct sprite *sprite)
+static void render_entity(const struct entity *entity, const struct sprite *sprite, int x, int y)
 {
-	render(sprite, entity->x, entity->y);
+	render(sprite, x, y);
 
 	// Highlighted if necessary
 	if(entity->highlight)
 	{
 		struct SDL_Rect area =
 		{
-			.x = entity->x,
-			.y = entity->y,
+			.x = x,
+			.y = y,
 			.w = sprite->surface->w,
 			.h = sprite->surface->h
 		};
@@ -69,6 +71,36 @@ static void render_entity(const struct entity *entity, const struct sprite *spri
 	}
 }
 
+/**
+ * Renders the standing cells of an entity's mask, each one as the sprite scaled down to the cell size
+ * @param entity
+ * @param sprite
+ */
+static void render_mask(struct entity *entity, const struct sprite *sprite)
+{
+	for(int cell = 0; cell < entity->mask_columns * entity->mask_rows; ++cell)
+	{
+		uint32_t word = *(uint32_t*)vec_get(&entity->mask, cell / 32);
+		if(!(word & (UINT32_C(1) << (cell % 32))))
+		{
+			continue;
+		}
+
+		struct SDL_Rect destination =
+		{
+			.x = entity->x + cell % entity->mask_columns * entity->mask_cell,
+			.y = entity->y + cell / entity->mask_columns * entity->mask_cell,
+			.w = entity->mask_cell,
+			.h = entity->mask_cell
+		};
+
+		if(SDL_RenderCopy(game.renderer, sprite->texture, NULL, &destination) < 0)
+		{
+			sdl_fatal();
+		}
+	}
+}
+
 /**
  * Redraw the game screen
  * Redraws all game entities registered in the hashmap of entities belonging to the game state
@@ -98,20 +130,32 @@ void redraw(void)
 			bool moved = move_on_tick(&entity->x, &entity->speed_x);
 			moved = move_on_tick(&entity->y, &entity->speed_y) || moved;
 
-			int sprite_id = *(int*)vec_get(&entity->sequence, entity->next_sprite);
-			struct sprite *sprite = hash_map_get(&game.sprites, sprite_id);
-			assert(sprite);
-
-			// Animation loop
-			if(moved && ++entity->next_sprite == entity->sequence.length)
+			// Formations have no sprites of their own, and sit below their members so that they step first
+			int x, y;
+			if(entity->sequence.length > 0 && entity_origin(entity, &x, &y))
 			{
-				entity->next_sprite = 0;
-			}
+				int sprite_id = *(int*)vec_get(&entity->sequence, entity->next_sprite);
+				struct sprite *sprite = hash_map_get(&game.sprites, sprite_id);
+				assert(sprite);
+
+				// Animation loop
+				if(moved && ++entity->next_sprite == entity->sequence.length)
+				{
+					entity->next_sprite = 0;
+				}
 
-			render_entity(entity, sprite);
+				if(entity->mask_columns > 0)
+				{
+					render_mask(entity, sprite);
+				} else
+				{
+					render_entity(entity, sprite, x, y);
+				}
+			}
 
-			// This is an optimization, the server would ignore a viewer message anyway
-			if(!(game.flags & GAME_FLAG_SPECTATOR) && moved)
+			// This is an optimization, the server would ignore a viewer message anyway. An authoritative
+			// server simulates on its own, so moves are only reported to servers that rely on them
+			if(!(game.flags & (GAME_FLAG_SPECTATOR | GAME_FLAG_SERVER_AUTHORITY)) && moved)
 			{
 				struct key_value items[] =
 				{
@@ -201,7 +245,8 @@ void event_loop(void)
 
 				case X11_EVENT:
 					errno = 0;
-					while(fgets(input_line + input_offset, sizeof input_line - input_offset, game.net_file))
+					while(!(game.flags & GAME_FLAG_BINARY)
+					   && fgets(input_line + input_offset, sizeof input_line - input_offset, game.net_file))
 					{
 						// This happens if there is a short read condition
 						if(!strchr(input_line + input_offset, NEW_LINE))
@@ -222,6 +267,12 @@ void event_loop(void)
 						input_offset = 0;
 					}
 
+					// After the handshake the stream may have switched to binary frames
+					if(game.flags & GAME_FLAG_BINARY)
+					{
+						receive_frames();
+					}
+
 					// EAGAIN indicates missing data, wait in loop again
 					if(errno == EAGAIN)
 					{
@@ -40,6 +40,7 @@ int main(int argc, char *argv[])
 		{CMDLINE_VERSION,         no_argument, NULL, CMDLINE_OPT_VERSION},
 		{CMDLINE_FULLSCREEN,      no_argument, NULL, CMDLINE_OPT_FULLSCREEN},
 		{CMDLINE_FULLSCREEN_FAKE, no_argument, NULL, CMDLINE_OPT_FULLSCREEN_FAKE},
+		{CMDLINE_JSON,            no_argument, NULL, CMDLINE_OPT_JSON},
 		{NULL,                    0,           NULL, 0}
 	};
 
@@ -58,7 +59,8 @@ int main(int argc, char *argv[])
 					"Usage: %s [OPTION]... <host> <port>\n"
 					"\n"
 					"    -f|--fullscreen       Enters fullscreen through Kernel Mode Setting\n"
-					"    -F|--fake-fullscreen  Displays a maximized and borderless X11 window\n",
+					"    -F|--fake-fullscreen  Displays a maximized and borderless X11 window\n"
+					"    -j|--json             Never negotiate the binary protocol\n",
                     arv[0]
 				);
 
@@ -76,6 +78,10 @@ int main(int argc, char *argv[])
 				game.flags |= GAME_FLAG_FULLSCREEN_FAKE;
 				break;
 
+			case CMDLINE_OPT_JSON:
+				game.flags |= GAME_FLAG_JSON_ONLY;
+				break;
+
 			case '?':
 				usage(arv[0]);
 				return EXIT_FAILURE;
@@ -1,5 +1,8 @@
+#include <errno.h>
 #include <stdio.h>
 #include <stdlib.h>
+#include <stdint.h>
+#include <string.h>
 #include <stdbool.h>
 
 #include <json-c/json_object.h>
@@ -97,21 +100,41 @@ static struct entity *expect_entity(struct json_object *message)
 }
 
 /**
- * Extract a mathematical reason from a message in JSON format
+ * Extract an optional integer from a message in JSON format
+ *
+ * @param message JSON object that may contain the field
+ * @param key key of the field
+ * @param value output parameter, left untouched if the field is absent
+ * @return bool true if the field was present, false otherwise
+ */
+static bool maybe_int(struct json_object *message, const char *key, int *value)
+{
+	struct json_object *object = expect_key(message, key, json_type_int, false);
+	if(object)
+	{
+		*value = json_object_get_int(object);
+	}
+
+	return object != NULL;
+}
+
+/**
+ * Update a mathematical reason from a message in JSON format
  * 
- * Given a message in JSON format that contains information regarding a mathematical
- * ratio, it extracts the information of the nominator and denominator of said mathematical
- * ratio from the object, and creates a struct ratio value based on said information
+ * Given a message in JSON format that may contain the numerator and/or the denominator of a
+ * mathematical ratio, it replaces the parts that are present and validates the result
  *
  * @param message JSON object containing the fields to be extracted
  * @param num_key string of characters used as the key of the value that identifies the numerator
  * @param denom_key string of characters used as the key of the value that identifies the denominator
- * @return struct ratio mathematical reason extracted from the JSON object
+ * @param ratio mathematical reason to update, whose parts are kept if they are absent from the message
  */
-static struct ratio expect_ratio(struct json_object *message, const char *num_key, const char *denom_key)
+static void update_ratio(struct json_object *message, const char *num_key, const char *denom_key, struct ratio *ratio)
 {
-	int num = json_object_get_int(expect_key(message, num_key, json_type_int, true));
-	int denom = json_object_get_int(expect_key(message, denom_key, json_type_int, true));
+	int num = ratio->numerator;
+	int denom = ratio->denominator;
+	maybe_int(message, num_key, &num);
+	maybe_int(message, denom_key, &denom);
 
 	// 0/0 is accepted for the case of a static entity
 	if(denom < 0 || (num != 0 && denom == 0))
@@ -120,13 +143,8 @@ static struct ratio expect_ratio(struct json_object *message, const char *num_ke
 		quit(EXIT_FAILURE);
 	}
 
-	struct ratio ratio =
-	{
-		.numerator   = num,
-		.denominator = denom
-	};
-
-	return ratio;
+	ratio->numerator = num;
+	ratio->denominator = denom;
 }
 
 /**
@@ -140,11 +158,8 @@ static struct ratio expect_ratio(struct json_object *message, const char *num_ke
  */
 static void expect_sequence(struct json_object *message, struct vec *sequence)
 {
+	// An empty sequence is valid, it belongs to an entity that is never drawn such as a formation
 	struct json_object *sequence_ids = expect_key(message, CMD_SEQUENCE, json_type_array, true);
-	if(json_object_array_length(sequence_ids) == 0)
-	{
-		fputs("Error: empty sequence array\n", stderr);
-	}
 
 	// Loop through the json array
 	for(size_t i = 0; i < json_object_array_length(sequence_ids); ++i)
@@ -184,6 +199,60 @@ static void expect_position(struct json_object *message, int *x, int *y)
 	*y = json_object_get_int(expect_key(message, CMD_Y, json_type_int, true));
 }
 
+/**
+ * Reads the cell mask of an entity, given as [columns, rows, cell size, bits 0-31, bits 32-63, ...]
+ * @param message message in JSON format containing the "mask" key
+ * @param entity entity whose mask is replaced
+ */
+static void expect_mask(struct json_object *message, struct entity *entity)
+{
+	struct json_object *mask = expect_key(message, CMD_MASK, json_type_array, true);
+	size_t length = json_object_array_length(mask);
+
+	int header[3] = { 0 };
+	for(size_t i = 0; i < 3 && i < length; ++i)
+	{
+		header[i] = json_object_get_int(json_object_array_get_idx(mask, i));
+	}
+
+	size_t words = ((size_t)header[0] * header[1] + 31) / 32;
+	if(length < 3 || header[0] <= 0 || header[1] <= 0 || header[2] <= 0 || length != 3 + words)
+	{
+		fputs("Error: bad entity mask\n", stderr);
+		quit(EXIT_FAILURE);
+	}
+
+	entity->mask_columns = header[0];
+	entity->mask_rows = header[1];
+	entity->mask_cell = header[2];
+
+	vec_resize(&entity->mask, 0);
+	for(size_t i = 3; i < length; ++i)
+	{
+		*(uint32_t*)vec_emplace(&entity->mask) = (uint32_t)json_object_get_int(json_object_array_get_idx(mask, i));
+	}
+}
+
+/**
+ * Asks the server for the complete game state, once until it arrives
+ */
+static void request_resync(void)
+{
+	if(game.flags & GAME_FLAG_RESYNC)
+	{
+		return;
+	}
+
+	struct key_value items[] =
+	{
+		{CMD_OP, json_object_new_string(CMD_RESYNC)},
+		{NULL,   NULL}
+	};
+
+	transmit(items);
+	game.flags |= GAME_FLAG_RESYNC;
+}
+
 /**
  * Handle commands coming from the server
  * 
@@ -198,39 +267,56 @@ static void handle_command(struct json_object *message)
 {
 	// Main dispatch of commands coming from the server
 	const char *operation = json_object_get_string(expect_key(message, CMD_OP, json_type_string, true));
-	if(strcmp(operation, CMD_PUT) == 0) // command to create entities
+	if(strcmp(operation, CMD_PUT) == 0) // command to create or update entities
 	{
 		int id = expect_id(message);
+		struct entity *entity = hash_map_get(&game.entities, id);
+		bool has_sequence = json_object_object_get(message, CMD_SEQUENCE) != NULL;
 
-		// A new entity is created (assuming it does not exist)
-		struct entity new = { 0 };
-		struct entity *existing = hash_map_get(&game.entities, id);
-		struct entity *entity = existing ? existing : &new;
-
-		// If it does exist, it is simply overwritten
-		if(existing)
+		// Only the first put of an entity is complete, the following ones carry what changed
+		if(!entity && !has_sequence)
 		{
-			vec_resize(&existing->sequence, 0);
-		} else
+			// Entity state was lost, the server is asked to send everything again
+			request_resync();
+			return;
+		} else if(!entity)
 		{
+			struct entity new = { 0 };
 			new.sequence = vec_new(sizeof(int));
+			new.mask = vec_new(sizeof(uint32_t));
 			entity = hash_map_put(&game.entities, id, &new);
 		}
 
-		// Other values included in the message are inserted
-		entity->next_sprite = 0;
-		expect_position(message, &entity->x, &entity->y);
-		expect_sequence(message, &entity->sequence);
+		// A new sequence restarts the animation
+		if(has_sequence)
+		{
+			vec_resize(&entity->sequence, 0);
+			entity->next_sprite = 0;
+			expect_sequence(message, &entity->sequence);
+		}
+
+		maybe_int(message, CMD_X, &entity->x);
+		maybe_int(message, CMD_Y, &entity->y);
 
 		// Depth
-		entity->z = json_object_get_int(expect_key(message, CMD_Z, json_type_int, true));
-		if(entity->z > game.max_depth)
+		if(maybe_int(message, CMD_Z, &entity->z) && entity->z > game.max_depth)
 		{
 			game.max_depth = entity->z;
 		}
 
-		entity->speed_x = expect_ratio(message, "num_x", "denom_x");
-		entity->speed_y = expect_ratio(message, "num_y", "denom_y");
+		update_ratio(message, "num_x", "denom_x", &entity->speed_x);
+		update_ratio(message, "num_y", "denom_y", &entity->speed_y);
+
+		if(json_object_object_get(message, CMD_MASK))
+		{
+			expect_mask(message, entity);
+		}
+
+		// Coordinates of formation members are relative to the formation
+		if(maybe_int(message, CMD_PARENT, &entity->parent))
+		{
+			entity->has_parent = true;
+		}
 	} else if(strcmp(operation, CMD_MOVE) == 0) //command to move an entity
 	{
 		struct entity *entity = expect_entity(message);
@@ -243,8 +329,35 @@ static void handle_command(struct json_object *message)
 		if(entity)
 		{
 			vec_clear(&entity->sequence);
+			vec_clear(&entity->mask);
 			hash_map_delete(&game.entities, id);
 		}
+	} else if(strcmp(operation, CMD_ERASE) == 0) // some cells of an entity's mask are gone
+	{
+		struct entity *entity = hash_map_get(&game.entities, expect_id(message));
+		struct json_object *cells = expect_key(message, CMD_CELLS, json_type_array, true);
+
+		// A lost entity is restored by the next full state anyway
+		for(size_t i = 0; entity && i < json_object_array_length(cells); ++i)
+		{
+			int cell = json_object_get_int(json_object_array_get_idx(cells, i));
+			if(cell >= 0 && cell < entity->mask_columns * entity->mask_rows)
+			{
+				*(uint32_t*)vec_get(&entity->mask, cell / 32) &= ~(UINT32_C(1) << (cell % 32));
+			}
+		}
+	} else if(strcmp(operation, CMD_RESET) == 0) // the complete state follows, everything known is dropped
+	{
+		for(struct hash_map_iter iter = hash_map_iter(&game.entities); iter.cell; hash_map_iter_next(&iter))
+		{
+			struct entity *entity = hash_map_iter_value(&iter);
+			vec_clear(&entity->sequence);
+			vec_clear(&entity->mask);
+		}
+
+		hash_map_clear(&game.entities);
+		game.entities = hash_map_new(DEFAULT_MAP_ORDER, sizeof(struct entity));
+		game.flags &= ~GAME_FLAG_RESYNC;
 	} else if(strcmp(operation, CMD_STATS) == 0) // Statistics update
 	{
 		int lives = json_object_get_int(expect_key(message, CMD_LIVES, json_type_int, true));
@@ -269,24 +382,15 @@ static void handle_command(struct json_object *message)
 }
 
 /**
- * Processes a message sent by the server
+ * Dispatches a decoded message from the server
  *
- * Processes a message sent from the server, expects plain text that can describe a JSON object.
- * Attempt to parse the JSON object, and if the parse is successful, process the message as either
- * the initial handshake, the game start handshake, or as a command
+ * Processes the message as either the initial handshake, the game start handshake, or as a
+ * command, regardless of the wire encoding it arrived in
  *
- * @param line message sent from the server as a string
+ * @param root message sent from the server, already decoded as a JSON object
  */
-void receive(const char *line)
+static void dispatch(struct json_object *root)
 {
-	struct json_object *root = json_tokener_parse(line);
-	if(!root || json_object_get_type(root) != json_type_object)
-	{
-		// The server sent a malformed message
-		fprintf(stderr, "Error: bad JSON: %s\n", line);
-		quit(EXIT_FAILURE);
-	}
-
 	// The possibility of an error message is always considered first
 	struct json_object *error = expect_key(root, CMD_ERROR, json_type_string, false);
 	if(error)
@@ -315,6 +419,233 @@ void receive(const char *line)
 			handle_command(root);
 			break;
 	}
+}
+
+/**
+ * Processes a message sent by the server
+ *
+ * Processes a message sent from the server, expects plain text that can describe a JSON object.
+ * Attempt to parse the JSON object, and if the parse is successful, process the message as either
+ * the initial handshake, the game start handshake, or as a command
+ *
+ * @param line message sent from the server as a string
+ */
+void receive(const char *line)
+{
+	struct json_object *root = json_tokener_parse(line);
+	if(!root || json_object_get_type(root) != json_type_object)
+	{
+		// The server sent a malformed message
+		fprintf(stderr, "Error: bad JSON: %s\n", line);
+		quit(EXIT_FAILURE);
+	}
 
+	dispatch(root);
 	json_object_put(root);
-}
\ No newline at end of file
+}
+
+// Binary field types, keys and symbols. These must match BinaryCodec.java on the server
+enum
+{
+	FIELD_TYPE_INT    = 0,
+	FIELD_TYPE_STRING = 1,
+	FIELD_TYPE_SYMBOL = 2,
+	FIELD_TYPE_LIST   = 3
+};
+
+static const char *const BINARY_KEYS[] =
+{
+	CMD_OP, CMD_ID, CMD_X, CMD_Y, CMD_Z, "num_x", "num_y", "denom_x", "denom_y", CMD_SEQUENCE,
+	CMD_LIVES, CMD_SCORE, CMD_WIDTH, CMD_HEIGHT, CMD_ERROR, CMD_WHOAMI, CMD_GAMES, CMD_KEY, CMD_INIT, CMD_CODEC,
+	CMD_MASK, CMD_CELLS, CMD_PARENT
+};
+
+static const char *const BINARY_SYMBOLS[] =
+{
+	CMD_PUT, CMD_DELETE, CMD_STATS, CMD_MOVE, CMD_HIGHLIGHT, CMD_UNHIGHLIGHT, CMD_BYE, CMD_PRESS, CMD_RELEASE,
+	CMD_RESYNC, CMD_RESET, CMD_ERASE
+};
+
+/**
+ * Reads an unsigned varint (7 bits per byte, least significant group first)
+ *
+ * @param data start of the encoded bytes
+ * @param length number of bytes available
+ * @param value output parameter that takes the decoded value
+ * @return size_t number of bytes consumed, or 0 if the varint is incomplete or too long
+ */
+static size_t read_varint(const unsigned char *data, size_t length, uint32_t *value)
+{
+	*value = 0;
+	for(size_t i = 0; i < length && i < 5; ++i)
+	{
+		*value |= (uint32_t)(data[i] & 0x7f) << (7 * i);
+		if(!(data[i] & 0x80))
+		{
+			return i + 1;
+		}
+	}
+
+	return 0;
+}
+
+/**
+ * Reads a zigzag-encoded signed integer
+ *
+ * @param data start of the encoded bytes
+ * @param end end of the frame
+ * @param value output parameter that takes the decoded value
+ * @return const unsigned char* position after the integer
+ */
+static const unsigned char *read_int(const unsigned char *data, const unsigned char *end, int *value)
+{
+	uint32_t raw;
+	size_t used = read_varint(data, end - data, &raw);
+	if(!used)
+	{
+		fputs("Error: truncated binary frame\n", stderr);
+		quit(EXIT_FAILURE);
+	}
+
+	*value = (int)(raw >> 1) ^ -(int)(raw & 1);
+	return data + used;
+}
+
+/**
+ * Decodes a binary frame into the JSON representation used by the rest of the client
+ *
+ * @param data frame payload
+ * @param length payload length
+ * @return struct json_object* decoded message
+ */
+static struct json_object *decode_frame(const unsigned char *data, size_t length)
+{
+	const unsigned char *end = data + length;
+	struct json_object *root = json_object_new_object();
+
+	while(data < end)
+	{
+		unsigned tag = *data++;
+		unsigned key = tag >> 2;
+		if(key >= sizeof BINARY_KEYS / sizeof *BINARY_KEYS)
+		{
+			fprintf(stderr, "Error: unknown binary key %u\n", key);
+			quit(EXIT_FAILURE);
+		}
+
+		int number;
+		struct json_object *value = NULL;
+		switch(tag & 0x03)
+		{
+			case FIELD_TYPE_INT:
+				data = read_int(data, end, &number);
+				value = json_object_new_int(number);
+				break;
+
+			case FIELD_TYPE_SYMBOL:
+			{
+				// Symbols are plain indices, not zigzag-encoded
+				uint32_t symbol;
+				size_t used = read_varint(data, end - data, &symbol);
+				if(!used || symbol >= sizeof BINARY_SYMBOLS / sizeof *BINARY_SYMBOLS)
+				{
+					fputs("Error: bad binary symbol\n", stderr);
+					quit(EXIT_FAILURE);
+				}
+
+				data += used;
+				value = json_object_new_string(BINARY_SYMBOLS[symbol]);
+				break;
+			}
+
+			case FIELD_TYPE_STRING:
+			{
+				uint32_t string_length;
+				size_t used = read_varint(data, end - data, &string_length);
+				if(!used || string_length > (size_t)(end - data) - used)
+				{
+					fputs("Error: truncated binary frame\n", stderr);
+					quit(EXIT_FAILURE);
+				}
+
+				value = json_object_new_string_len((const char*)data + used, string_length);
+				data += used + string_length;
+				break;
+			}
+
+			case FIELD_TYPE_LIST:
+			{
+				uint32_t count;
+				size_t used = read_varint(data, end - data, &count);
+				if(!used)
+				{
+					fputs("Error: truncated binary frame\n", stderr);
+					quit(EXIT_FAILURE);
+				}
+
+				data += used;
+				value = json_object_new_array();
+				for(uint32_t i = 0; i < count; ++i)
+				{
+					data = read_int(data, end, &number);
+					json_object_array_add(value, json_object_new_int(number));
+				}
+
+				break;
+			}
+		}
+
+		json_object_object_add(root, BINARY_KEYS[key], value);
+	}
+
+	return root;
+}
+
+/**
+ * Processes every complete binary frame available from the server
+ *
+ * Used instead of receive() once the binary codec has been negotiated. Reads as much as is
+ * available from the socket, decodes each complete frame into the same JSON representation
+ * that text messages have and dispatches it. Incomplete frames are kept for the next call
+ */
+void receive_frames(void)
+{
+	static unsigned char buffer[MAX_INPUT_FRAME_BUFFER];
+	static size_t buffered = 0;
+
+	size_t read;
+	do
+	{
+		// Stops short with EAGAIN once the socket is drained (net_file is non-blocking)
+		errno = 0;
+		read = fread(buffer + buffered, 1, sizeof buffer - buffered, game.net_file);
+		buffered += read;
+
+		size_t offset = 0;
+		while(offset < buffered)
+		{
+			uint32_t length;
+			size_t header = read_varint(buffer + offset, buffered - offset, &length);
+			if(!header || length > buffered - offset - header)
+			{
+				break;
+			}
+
+			struct json_object *root = decode_frame(buffer + offset + header, length);
+			dispatch(root);
+			json_object_put(root);
+
+			offset += header + length;
+		}
+
+		if(offset == 0 && buffered == sizeof buffer)
+		{
+			fputs("Error: binary frame exceeds the input buffer\n", stderr);
+			quit(EXIT_FAILURE);
+		}
+
+		// The incomplete tail is moved to the front for the next read
+		memmove(buffer, buffer + offset, buffered - offset);
+		buffered -= offset;
+	} while(read > 0);
+}
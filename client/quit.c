@@ -40,6 +40,7 @@ void quit(int exit_code)
 	{
 		struct entity *entity = hash_map_iter_value(&iter);
 		vec_clear(&entity->sequence);
+		vec_clear(&entity->mask);
 	}
 
 	// Sprite textures
@@ -46,6 +46,16 @@ struct entity
 	struct ratio speed_x;
 	struct ratio speed_y;
 	bool         highlight;
+
+	// Entities drawn as a grid of cells, only some of which are standing (mask_columns is 0 otherwise)
+	struct vec   mask;
+	int          mask_columns;
+	int          mask_rows;
+	int          mask_cell;
+
+	// Members of a formation are placed relative to it, their coordinates are offsets then
+	bool         has_parent;
+	int          parent;
 };
 
 /**
@@ -80,7 +90,11 @@ extern struct game
 		GAME_FLAG_ZERO               = 0x00,
 		GAME_FLAG_FULLSCREEN_MODESET = 0x01,
 		GAME_FLAG_FULLSCREEN_FAKE    = 0x02,
-		GAME_FLAG_SPECTATOR          = 0x04
+		GAME_FLAG_SPECTATOR          = 0x04,
+		GAME_FLAG_JSON_ONLY          = 0x08,
+		GAME_FLAG_BINARY             = 0x10,
+		GAME_FLAG_RESYNC             = 0x20,
+		GAME_FLAG_SERVER_AUTHORITY   = 0x40
 	} flags;
 
 	int               net_fd;
@@ -158,6 +172,18 @@ void event_loop(void);
  */
 bool move_on_tick(int *coordinate, const struct ratio *speed);
 
+/**
+ * Computes where an entity is on screen, which for members of a formation is the formation's position plus
+ * their offset
+ *
+ * @param entity entity to place
+ * @param x output parameter for the horizontal screen coordinate
+ * @param y output parameter for the vertical screen coordinate
+ * @return true if the entity can be placed
+ * @return false its formation is unknown, so it is not drawn
+ */
+bool entity_origin(const struct entity *entity, int *x, int *y);
+
 /**
  * Updates the statistics label on the screen
  *
@@ -211,6 +237,15 @@ void transmit(const struct key_value *items);
  */
 void receive(const char *line);
 
+/**
+ * Processes every complete binary frame available from the server
+ *
+ * Used instead of receive() once the binary codec has been negotiated. Reads as much as is
+ * available from the socket, decodes each complete frame into the same JSON representation
+ * that text messages have and dispatches it. Incomplete frames are kept for the next call
+ */
+void receive_frames(void);
+
 /**
  * Gets a key-value record of a JSON object and returns it as a separate JSON object
  *
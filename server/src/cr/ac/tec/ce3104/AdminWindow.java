@@ -1,21 +1,31 @@
 package cr.ac.tec.ce3104;
 
+import cr.ac.tec.ce3104.comms.Broadcaster;
+import cr.ac.tec.ce3104.comms.Codec;
+import cr.ac.tec.ce3104.comms.CommandBatch;
 import cr.ac.tec.ce3104.gameobjects.*;
-import cr.ac.tec.ce3104.physics.HorizontalDirection;
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
+import cr.ac.tec.ce3104.logging.LogLevel;
+import cr.ac.tec.ce3104.logging.LogSink;
+import cr.ac.tec.ce3104.physics.Dynamics;
 import cr.ac.tec.ce3104.physics.Position;
+import cr.ac.tec.ce3104.scheduling.GameShard;
+import cr.ac.tec.ce3104.scheduling.TaskExecutor;
+import cr.ac.tec.ce3104.scheduling.TimerWheel;
 
 import java.io.IOException;
-import java.io.PrintStream;
-import java.io.BufferedReader;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
-import java.io.InputStreamReader;
+import java.io.ByteArrayOutputStream;
 
 import java.awt.Font;
 import java.awt.Color;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Random;
 
 import javax.swing.Box;
 import javax.swing.JFrame;
@@ -29,33 +39,20 @@ import javax.swing.text.DefaultCaret;
 import static java.lang.Thread.sleep;
 
 // Management console
-public class AdminWindow {
-
-    // Original and piped stdout
-    private final PrintStream realStdout;
-    private final BufferedReader stdoutSink;
+public class AdminWindow implements LogSink {
 
     // Graphic elements
     private JFrame frame;
     private JTextArea consoleOutput;
     private JTextField inputLine;
-    private Thread sinkThread;
+
+    // Log messages waiting to be shown, only touched by the log's drain thread
+    private final StringBuilder pendingOutput = new StringBuilder();
 
     /**
      * Initialize a new instance of the game manager console
-     * @param realStdout real standard output stream
-     * @throws IOException exceptions associated with IO operations on streams
      */
-    public AdminWindow(PrintStream realStdout) throws IOException {
-        PipedOutputStream stdoutPipe = new PipedOutputStream();
-        this.stdoutSink = new BufferedReader(new InputStreamReader(new PipedInputStream(stdoutPipe)));
-        this.realStdout = realStdout;
-
-        // Stdout is replaced
-        PrintStream fakeStdout = new PrintStream(stdoutPipe, true);
-        System.setOut(fakeStdout);
-        System.setErr(fakeStdout);
-
+    public AdminWindow() {
         // Window starts
         SwingUtilities.invokeLater(this::start);
     }
@@ -89,9 +86,39 @@ public class AdminWindow {
         this.frame.pack();
         this.frame.setVisible(true);
 
-        // Starts the thread that reads the console contents
-        this.sinkThread = new Thread(this::readSink);
-        this.sinkThread.start();
+        // From now on the log is shown in the console too
+        Log.getInstance().addSink(this);
+    }
+
+    @Override
+    public void append(Long timeMillis, LogLevel level, LogCategory category, String message) {
+        this.pendingOutput.append(message).append("\n");
+    }
+
+    @Override
+    public void flush() {
+        // The whole batch is appended in a single event
+        String text = this.pendingOutput.toString();
+        this.pendingOutput.setLength(0);
+        SwingUtilities.invokeLater(() -> this.consoleOutput.append(text));
+    }
+
+    /**
+     * Shows a reply to an administrator command. Replies go straight to the console, not through the log, so
+     * they are never filtered, sampled or dropped and never end up in the log file
+     * @param line text of the reply
+     */
+    private void reply(String line) {
+        // Some replies are sent from game threads, so the text area is always touched from the event thread
+        SwingUtilities.invokeLater(() -> this.consoleOutput.append(line + "\n"));
+    }
+
+    /**
+     * Shows an error caused by an administrator command
+     * @param line text of the error
+     */
+    private void replyError(String line) {
+        this.reply(line);
     }
 
     /**
@@ -106,41 +133,109 @@ public class AdminWindow {
         }
 
         String[] command = line.split(" +");
-        System.out.println("> " + line);
+        reply("> " + line);
 
         // The command line is parsed
         try {
             switch (command[0]) {
                 case "help" -> {
-                    System.out.println("=== Available commands ===");
-                    System.out.println("help: Show command help");
-                    System.out.println("clear: Clears the command line");
-                    System.out.println("game-list: Show running games");
-                    System.out.println("object-list <game>: Show all entities in a running game");
-                    System.out.println("add-enemy <game> <x> <y> [squid|crab|octopus]: Add a enemy");
-                    System.out.println("add-enemy-line <game> <y> [squid|crab|octopus]: Add a enemy line");
-                    System.out.println("add-saucer <game> <score>: Add a flying saucer");
+                    reply("=== Available commands ===");
+                    reply("help: Show command help");
+                    reply("clear: Clears the command line");
+                    reply("game-list: Show running games and the load of every shard");
+                    reply("stats: Show thread count and memory usage of the server");
+                    reply("object-list <game> [player|enemies|shots|other|rigid|floating|interactive]: Show the entities in a running game, all or only those of a kind or dynamics");
+                    reply("wire-stats <game>: Compare the size of a full game snapshot in every codec");
+                    reply("broadcast-stats: Show how many batches were encoded and how many times they were sent");
+                    reply("add-enemy <game> <x> <y> [squid|crab|octopus]: Add a enemy");
+                    reply("add-enemy-line <game> <y> [squid|crab|octopus]: Add a enemy line");
+                    reply("add-saucer <game> <score> [delay-ms]: Add a flying saucer, now or after a delay");
                 }
                 case "clear" -> this.consoleOutput.setText("");
                 case "game-list" -> {
                     Boolean atLeastOne = false;
                     for (Integer id : Server.getInstance().getGameIds()) {
-                        atLeastOne = true;
-
                         Game game = Server.getInstance().getGame(id);
-                        System.out.println("Game " + id + " started by client " + game.getPlayerId());
+                        if (game != null) {
+                            atLeastOne = true;
+                            reply("Game " + id + " started by client " + game.getPlayerId() + " on shard " + game.getShard().getIndex());
+                        }
                     }
 
                     if (!atLeastOne) {
-                        System.out.println("No games are running");
+                        reply("No games are running");
+                    }
+
+                    for (GameShard shard : Server.getInstance().getShards().getShards()) {
+                        reply(String.format("Shard %d: %d games, %d entities, %.1f ticks/s",
+                                shard.getIndex(), shard.getGames(), shard.getEntities(), shard.sampleTickRate()));
                     }
                 }
+                case "stats" -> {
+                    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                    Runtime runtime = Runtime.getRuntime();
+
+                    reply("Thread mode: " + TaskExecutor.getInstance().getMode().name().toLowerCase());
+                    reply("Platform threads: " + threads.getThreadCount() + " live, " + threads.getPeakThreadCount() + " peak");
+                    reply("Pending timers: " + TimerWheel.getInstance().getPending());
+                    reply("Heap: " + (runtime.totalMemory() - runtime.freeMemory()) / 1024 + " KiB used");
+                    reply("RSS: " + readResidentSetSize());
+                    reply("Dropped log messages: " + Log.getInstance().getDropped());
+                }
                 case "object-list" -> {
                     Game game = expectGame(command, 1);
-                    for (GameObject object : game.getGameObjects().values()) {
-                        System.out.println(object);
-                    }
-                    System.out.println("Total: " + game.getGameObjects().size());
+                    String filter = command.length > 2 ? command[2] : null;
+
+                    // Filters are parsed right away, so that a typo is reported as a bad command
+                    Dynamics dynamics = switch (filter == null ? "" : filter) {
+                        case "rigid" -> Dynamics.RIGID;
+                        case "floating" -> Dynamics.FLOATING;
+                        case "interactive" -> Dynamics.INTERACTIVE;
+                        default -> null;
+                    };
+                    EntityKind kind = filter != null && dynamics == null ? EntityKind.parse(filter) : null;
+
+                    game.post(() -> {
+                        Collection<GameObject> objects;
+                        if (dynamics != null) {
+                            objects = game.getIndex().withDynamics(dynamics);
+                        } else if (kind != null) {
+                            objects = game.getIndex().ofKind(kind);
+                        } else {
+                            objects = game.getGameObjects().values();
+                        }
+
+                        for (GameObject object : objects) {
+                            reply(object.toString());
+                        }
+                        reply("Total: " + objects.size());
+                    });
+                }
+                case "wire-stats" -> {
+                    Game game = expectGame(command, 1);
+                    game.post(() -> {
+                        CommandBatch snapshot = game.makeSnapshot();
+
+                        Integer commands = 0;
+                        for (Object ignored : snapshot) {
+                            ++commands;
+                        }
+
+                        for (String name : Codec.names()) {
+                            ByteArrayOutputStream output = new ByteArrayOutputStream();
+                            Codec.byName(name).encode(snapshot, output);
+
+                            Integer bytes = output.size();
+                            reply(name + ": " + bytes + " bytes for " + commands + " commands (" + bytes / commands + " bytes/command)");
+                        }
+                    });
+                }
+                case "broadcast-stats" -> {
+                    Long batches = Broadcaster.getEncodedBatches();
+                    Long writes = Broadcaster.getClientWrites();
+
+                    reply("Encoded batches: " + batches + " (" + Broadcaster.getEncodedBytes() + " bytes)");
+                    reply("Client writes: " + writes + (batches > 0 ? String.format(" (%.2f per encoded batch)", (double)writes / batches) : ""));
                 }
                 case "add-enemy" -> {
                     Game game = expectGame(command, 1);
@@ -154,17 +249,19 @@ public class AdminWindow {
                         default -> throw new Exception();
                     };
 
-                    Position position = new Position(posX, posY);
-                    if(game.isValidPosition(position)) {
-                        Enemy enemy = game.spawn(new EnemyFactory().createEnemy(type, -6, position, false, game));
-                        System.out.println("Created enemy " + enemy);
-                    }
-                    else{
-                        System.out.println("Can't generate object, out of valid bounds (x=[0, 240], y=[25, 175])");
-                    }
+                    game.post(() -> {
+                        Position position = new Position(posX, posY);
+                        if(game.isValidPosition(position)) {
+                            Enemy enemy = game.spawn(new EnemyFactory().createEnemy(type, -6, position, false, game));
+                            reply("Created enemy " + enemy);
+                        }
+                        else{
+                            reply("Can't generate object, out of valid bounds (x=[0, 240], y=[25, 175])");
+                        }
 
-                    // Invokes function to enable enemies shooting ability
-                    game.enemiesStartShooting();
+                        // Invokes function to enable enemies shooting ability
+                        game.enemiesStartShooting();
+                    });
                 }
                 case "add-enemy-line" -> {
                     Game game = expectGame(command, 1);
@@ -178,43 +275,46 @@ public class AdminWindow {
                         case "octopus" -> EnemyType.OCTOPUS;
                         default -> throw new Exception();
                     };
-                    Position position = new Position(posX, posY);
-                    if(game.isValidPosition(position)) {
-                        Integer i;
-                        for (i = 0; i <= 8; i++) {
-                            Enemy enemy = game.spawn(new EnemyFactory().createEnemy(type, -6, position, true, game));
-                            System.out.println("Created enemy " + enemy);
-                            posX += 20;
-                            position.setX(posX);
+                    game.post(() -> {
+                        Position position = new Position(posX, posY);
+                        if(game.isValidPosition(position)) {
+                            // The whole line moves as one formation, each enemy owns its position within it
+                            Formation formation = new Formation(-6, position, true);
+                            Integer enemyX = posX;
+                            Integer i;
+                            for (i = 0; i <= 8; i++) {
+                                Position enemyPosition = new Position(enemyX, posY);
+                                formation.enlist(new EnemyFactory().createEnemy(type, -6, enemyPosition, true, game));
+                                enemyX += 20;
+                            }
+
+                            game.spawn(formation);
+                            for (Enemy enemy : formation.getMembers()) {
+                                game.spawn(enemy);
+                                reply("Created enemy " + enemy);
+                            }
+                        }
+                        else{
+                            reply("Can't generate object, out of valid bounds (y=[25, 175])");
                         }
-                    }
-                    else{
-                        System.out.println("Can't generate object, out of valid bounds (y=[25, 175])");
-                    }
 
-                    // Invokes function to enable enemies shooting ability
-                    game.enemiesStartShooting();
+                        // Invokes function to enable enemies shooting ability
+                        game.enemiesStartShooting();
+                    });
                 }
                 case "add-saucer" -> {
                     Game game = expectGame(command, 1);
                     Integer score = expectInteger(command, 2);
 
-                    Saucer saucer;
-                    Random random = new Random();
-                    int randomNumber = random.nextInt(2);
-                    if (randomNumber == 0) {
-                        saucer = new Saucer(0, HorizontalDirection.LEFT, new Position(256, 50), score, game);
-                        game.spawn(saucer);
-                    } else{
-                        saucer = new Saucer(0, HorizontalDirection.RIGHT, new Position(0, 50), score, game);
-                        game.spawn(saucer);
-                    }
-                    System.out.println("Created flying saucer " + saucer);
+                    Integer delay = command.length > 3 ? expectInteger(command, 3) : 0;
+
+                    game.post(() -> game.scheduleSaucer(score, delay));
+                    reply("Flying saucer scheduled in " + delay + " ms");
                 }
-                default -> System.err.println("Error: unknown command '" + command[0] + "'. Type 'help' for more information.");
+                default -> replyError("Error: unknown command '" + command[0] + "'. Type 'help' for more information.");
             }
         } catch (Exception exception) {
-            System.err.println("Error: bad usage. Type 'help' for more information." + exception.getMessage());
+            replyError("Error: bad usage. Type 'help' for more information." + exception.getMessage());
         }
     }
 
@@ -225,11 +325,11 @@ public class AdminWindow {
      * @return game reference
      * @throws Exception error that arises when there is an invalid entry by the administrator
      */
-    private static Game expectGame(String[] command, Integer index) throws Exception {
+    private Game expectGame(String[] command, Integer index) throws Exception {
         Integer id = expectInteger(command, index);
         Game game = Server.getInstance().getGame(id);
         if (game == null) {
-            System.err.println("Error: no game has ID " + id);
+            replyError("Error: no game has ID " + id);
             throw new Exception();
         }
         return game;
@@ -265,36 +365,20 @@ public class AdminWindow {
     }
 
     /**
-     * Attempts to read information from the standard output stream
+     * Gets the resident set size of the server process
+     * @return textual resident set size, as reported by the kernel
      */
-    private void readSink() {
+    private static String readResidentSetSize() {
         try {
-            try {
-                while (true) {
-                    String line;
-                    try {
-                        line = this.stdoutSink.readLine();
-                    } catch (IOException exception) {
-                        // This happens when a client's thread ends
-                        continue;
-                    }
-
-                    // This should never happen
-                    if (line == null) {
-                        break;
-                    }
-
-                    // It shows both in real stdout and console
-                    this.realStdout.println(line);
-                    SwingUtilities.invokeLater(() -> this.consoleOutput.append(line + "\n"));
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return line.substring("VmRSS:".length()).trim();
                 }
-            } finally {
-                // Restore stdout/stderr in case of a problem
-                System.setOut(this.realStdout);
-                System.setErr(this.realStdout);
             }
-        } catch (Exception exception) {
-            exception.printStackTrace();
+        } catch (IOException exception) {
+            // Not running on Linux
         }
+
+        return "unknown";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package cr.ac.tec.ce3104;
+
+// Which side simulates the motion of entities
+public enum Authority {
+    // The server advances every entity on its own clock and clients only send key events
+    SERVER,
+    // The player client simulates entities and reports where they moved
+    CLIENT;
+
+    /**
+     * Parses an authority from its textualization
+     * @param source representative text
+     * @return respective authority
+     * @throws IllegalArgumentException if the text names no authority
+     */
+    public static Authority parse(String source) {
+        return switch (source) {
+            case "server" -> Authority.SERVER;
+            case "client" -> Authority.CLIENT;
+            default -> throw new IllegalArgumentException("unknown authority: " + source);
+        };
+    }
+
+    /**
+     * Gets the name under which clients know this authority
+     * @return authority name
+     */
+    public String getName() {
+        return this.name().toLowerCase();
+    }
+}
@@ -1,28 +1,70 @@
 package cr.ac.tec.ce3104;
 
+import cr.ac.tec.ce3104.comms.Broadcaster;
 import cr.ac.tec.ce3104.comms.Client;
 import cr.ac.tec.ce3104.comms.Command;
 import cr.ac.tec.ce3104.comms.CommandBatch;
 import cr.ac.tec.ce3104.gameobjects.*;
 import cr.ac.tec.ce3104.levels.Level;
 import cr.ac.tec.ce3104.levels.Level1;
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
+import cr.ac.tec.ce3104.logging.LogLevel;
 import cr.ac.tec.ce3104.modes.ControllableMode;
+import cr.ac.tec.ce3104.physics.Bounds;
 import cr.ac.tec.ce3104.physics.Dynamics;
+import cr.ac.tec.ce3104.physics.EntityStore;
 import cr.ac.tec.ce3104.physics.Orientation;
 import cr.ac.tec.ce3104.physics.Placement;
 import cr.ac.tec.ce3104.physics.Position;
-
+import cr.ac.tec.ce3104.physics.SpatialGrid;
+import cr.ac.tec.ce3104.physics.HorizontalDirection;
+import cr.ac.tec.ce3104.scheduling.GameShard;
+import cr.ac.tec.ce3104.scheduling.TaskExecutor;
+import cr.ac.tec.ce3104.scheduling.TimerScope;
+import cr.ac.tec.ce3104.scheduling.Timeout;
+
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Random;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// A running game. Its state is only touched by the game loop: clients, the admin console and timers post events,
+// which run one at a time, so nothing in here needs a lock
+public class Game implements GameObjectObserver {
+    // Moves of an entity are only merged while it stays this close to where it was last tested, so that it
+    // cannot skip over anything (the narrowest sprites, shots, are 3 pixels wide)
+    private static final Integer MAX_COALESCED_STEP = 3;
 
-import static java.lang.Thread.sleep;
+    // The server simulation runs at the same rate as the client clock, so that speeds mean the same on both sides
+    private static final Integer TICK_HZ = 30;
+    // Clients simulate on their own clock, their positions are corrected this often
+    private static final Integer CORRECTION_TICKS = TICK_HZ;
+
+    // Time between checks for enemies that could shoot, while there are none
+    private static final Integer ENEMY_FIRE_IDLE_MILLIS = 1000;
 
-public class Game implements GameObjectObserver {
     // Entities and game state
     private Level level = new Level1();
     private Player player;
     private HashMap<Integer, GameObject> gameObjects = new HashMap<>();
+    private EntityIndex index = new EntityIndex();
+    private SpatialGrid grid = new SpatialGrid(this.level.getGameAreaSize());
+    private EntityStore store = new EntityStore();
+    // Every move is tested through this one, see `onMove`
+    private Placement placement = new Placement(this.level, this.grid);
+    private ShooterIndex shooters = new ShooterIndex();
+    private ShotPool<PlayerShot> playerShots = new ShotPool<>(PlayerShot::new);
+    private ShotPool<EnemyShot> enemyShots = new ShotPool<>((difficulty, position) -> new EnemyShot(difficulty, position, this.random));
+
+    // Every random decision of the game comes from here, so that a seed and the player's input replay a game
+    private Long seed;
+    private SplittableRandom random;
 
     // Statistics
     private Integer lives = 3;
@@ -33,66 +75,200 @@ public class Game implements GameObjectObserver {
     private Integer playerId;
     private HashMap<Integer, Client> clients = new HashMap<>(); // Observers
     private CommandBatch outputQueue = new CommandBatch();
-    public Thread enemiesShooting;
-
-
-    public Game(Client playerClient) {
+    private Broadcaster broadcaster = new Broadcaster();
+    private Integer flushInterval;
+    private Future<?> pendingFlush = null;
+    private Timeout enemiesShooting = null;
+    private TimerScope timers = new TimerScope();
+
+    // Simulation state
+    private Authority authority;
+    private Integer ticks = 0;
+    private Future<?> simulation = null;
+    private GameObject[] dueObjects = new GameObject[64];
+
+    // Game loop. Posting schedules a drain of the posted events on the shard of the game, one at a time
+    private final GameShard shard;
+    private final ConcurrentLinkedQueue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private Boolean outputPending = false;
+    // Entities counted on the shard, null once the game has ended
+    private Integer reportedEntities = 0;
+
+    public Game(Client playerClient, Integer flushInterval, Authority authority, GameShard shard, Long seed) {
+        this.shard = shard;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
         this.playerId = playerClient.getClientId();
-        this.attachClient(playerClient);
+        this.flushInterval = flushInterval;
+        this.authority = authority;
+        // Nothing else can see the game yet, so it is set up right here instead of on the game loop
+        this.attach(playerClient);
 
-        this.log("New game");
+        this.log("New game, seed " + seed);
         // The game starts
         this.reset();
+
+        if (this.authority == Authority.SERVER) {
+            this.simulation = TaskExecutor.getInstance().repeat(() -> this.post(this::tick), 1_000_000_000L / TICK_HZ);
+        }
+    }
+
+    /**
+     * Queues an event for the game loop, starting a drain if none is running. Safe to call from any thread
+     * @param event task that reads or changes the game
+     */
+    public void post(Runnable event) {
+        this.inbox.add(event);
+        if (this.draining.compareAndSet(false, true)) {
+            this.shard.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs posted events until there are none left, then sends what they changed as a single batch
+     */
+    private void drain() {
+        do {
+            Runnable event;
+            while ((event = this.inbox.poll()) != null) {
+                try {
+                    event.run();
+                } catch (Exception exception) {
+                    // One bad event does not stop the game
+                    Log.getInstance().error(LogCategory.GAME, "[GAME-" + this.playerId + "] Error", exception);
+                }
+            }
+
+            // Shots deleted by these events may be spawned again from now on
+            this.playerShots.recycle();
+            this.enemyShots.recycle();
+
+            if (this.outputPending) {
+                this.outputPending = false;
+                this.flush();
+            }
+
+            if (this.reportedEntities != null) {
+                this.shard.addEntities(this.store.getCount() - this.reportedEntities);
+                this.reportedEntities = this.store.getCount();
+            }
+
+            this.draining.set(false);
+
+            // An event posted right before `draining` was cleared did not start a drain of its own
+        } while (!this.inbox.isEmpty() && this.draining.compareAndSet(false, true));
     }
 
     /**
      * Add a client as a game viewer
      * @param client client to add as viewer
      */
-    public synchronized void attachClient(Client client) {
+    public void attachClient(Client client) {
+        this.post(() -> this.attach(client));
+    }
+
+    /**
+     * Adds a client as a game viewer, from the game loop
+     * @param client client to add as viewer
+     */
+    private void attach(Client client) {
         Integer maxClients = this.clients.get(this.playerId) != null ? 3 : 2;
         if (this.clients.size() >= maxClients) {
             client.sendError("no more spectators are allowed for this game");
             return;
         }
 
-        // The state of the other clients is synchronized so far
-        this.commit();
+        // The state of the other clients is so far
+        this.converge();
 
         // The complete game state is built to dedicate it to the new client
-        CommandBatch catchUp = new CommandBatch();
-        catchUp.add(Command.cmdGameArea(this.level.getGameAreaSize()));
+        client.sendBatch(this.makeSnapshot());
+        this.clients.put(client.getClientId(), client);
+
+        this.log("Client " + client + " has joined");
+    }
 
+    /**
+     * Sends the complete game state again to a client that asks for it, replacing whatever it had
+     * @param client client that requested the state
+     */
+    public void resync(Client client) {
+        this.post(() -> {
+            this.converge();
+
+            CommandBatch keyframe = new CommandBatch();
+            keyframe.add(Command.cmdReset());
+            this.addEntityState(keyframe);
+            client.sendKeyframe(keyframe);
+        });
+    }
+
+    /**
+     * Sends whatever is pending, followed by every entity through the shared delta stream. Only what the current
+     * clients are missing is actually sent, after which a full snapshot matches what all of them know
+     */
+    private void converge() {
         for (GameObject object : this.gameObjects.values()) {
-            catchUp.add(object.makePutCommand());
+            this.outputQueue.add(object.makePutCommand());
         }
 
-        client.sendBatch(catchUp);
-        this.clients.put(client.getClientId(), client);
+        this.flush();
+    }
 
-        this.log("Client " + client + " has joined");
+    /**
+     * Builds the commands that describe the complete current state of the game
+     * @return game area, stats and every entity in the game
+     */
+    public CommandBatch makeSnapshot() {
+        CommandBatch snapshot = new CommandBatch();
+        snapshot.add(Command.cmdGameArea(this.level.getGameAreaSize()));
+        this.addEntityState(snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * Appends the stats and every entity in the game to a batch
+     * @param batch batch to append to
+     */
+    private void addEntityState(CommandBatch batch) {
+        batch.add(Command.cmdStats(this.lives, this.score));
+
+        for (GameObject object : this.gameObjects.values()) {
+            batch.add(object.makePutCommand());
+        }
     }
 
     /**
      * Removes a client from the viewer list and disconnects them from the game
      * @param client client to remove from the game
      */
-    public synchronized void detachClient(Client client) {
-        this.clients.remove(client.getClientId());
-        this.log("Client " + client + " has left");
+    public void detachClient(Client client) {
+        this.post(() -> {
+            this.clients.remove(client.getClientId());
+            this.log("Client " + client + " has left");
+
+            // Changes to the game occur when each client disconnects
+            if (client.getClientId().equals(this.playerId) || this.clients.isEmpty()) {
+                if (!this.clients.isEmpty()) {
+                    this.log("Player client has left, freezing all entities...");
+                }
 
-        // Changes to the game occur when each client disconnects
-        if (this.clients.isEmpty()) {
-            this.log("No clients left. Game finalized");
-            Server.getInstance().removeGame(this.playerId);
-        } else if (client.getClientId() == this.playerId) {
-            this.log("Player client has left, freezing all entities...");
+                // Nothing is moved, fired, reloaded or spawned once the player is gone
+                this.stopScheduling();
+            }
+
+            if (this.clients.isEmpty()) {
+                this.log("No clients left. Game finalized");
+                Server.getInstance().removeGame(this.playerId);
 
-            // The game stops immediately if the player exits
-            for (GameObject object : this.gameObjects.values()) {
-                //object.freeze();
+                if (this.reportedEntities != null) {
+                    this.shard.release(this.reportedEntities);
+                    this.reportedEntities = null;
+                }
             }
-        }
+        });
     }
 
     /**
@@ -100,26 +276,160 @@ public class Game implements GameObjectObserver {
      * @param key key pressed
      */
     public void onPress(Key key) {
-        // Keys are ignored during Dying (the client is unaware of this)
-        if (this.player.hasLost()) {
-            return;
-        }
+        this.post(() -> {
+            // Keys are ignored during Dying (the client is unaware of this)
+            if (this.player.hasLost()) {
+                return;
+            }
 
-        ControllableMode mode = (ControllableMode)this.player.getMode();
-        switch (key) {
-            case LEFT -> mode.onMoveLeft(this.player);
-            case RIGHT -> mode.onMoveRight(this.player);
-            case SHOOT -> mode.onShoot(this.player);
-        }
+            ControllableMode mode = (ControllableMode)this.player.getMode();
+            switch (key) {
+                case LEFT -> mode.onMoveLeft(this.player);
+                case RIGHT -> mode.onMoveRight(this.player);
+                case SHOOT -> mode.onShoot(this.player);
+            }
+        });
     }
 
     /**
      * Indicates what to do once a fabric has been released
      */
     public void onRelease() {
-        if (!this.player.hasLost()) {
-            ((ControllableMode)this.player.getMode()).onRelease(this.player);
+        this.post(() -> {
+            if (!this.player.hasLost()) {
+                ((ControllableMode)this.player.getMode()).onRelease(this.player);
+            }
+        });
+    }
+
+    /**
+     * Applies the moves received since the input of the player was last drained, in a single game loop event.
+     * Collisions are tested only for the latest position of each entity, unless skipping the earlier ones
+     * would let it pass through something
+     * @param moves moves in the order they were received
+     */
+    public void onMoves(List<Move> moves) {
+        // Positions reported by clients are not trusted when the server simulates on its own
+        if (this.authority != Authority.SERVER) {
+            this.post(() -> this.applyMoves(moves));
+        }
+    }
+
+    /**
+     * Applies a run of moves from the game loop
+     * @param moves moves in the order they were received
+     */
+    private void applyMoves(List<Move> moves) {
+
+        LinkedHashMap<Integer, Position> latest = new LinkedHashMap<>();
+        for (Move move : moves) {
+            Position pending = latest.get(move.getObjectId());
+            if (pending != null && this.exceedsCoalescedStep(move)) {
+                this.onMove(move.getObjectId(), pending);
+            }
+
+            latest.put(move.getObjectId(), move.getPosition());
+        }
+
+        for (Map.Entry<Integer, Position> entry : latest.entrySet()) {
+            this.onMove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Advances the simulation by one tick, moving every entity by its speed and resolving collisions the same
+     * way as reported moves are. Clients only learn about mode changes and, periodically, where moving entities
+     * actually are
+     */
+    private void tick() {
+        ++this.ticks;
+        this.shard.onTick();
+
+        // Entities may be deleted, spawned or swapped to another slot while others move, so those that are due
+        // to move are picked before any of them does
+        Integer due = 0;
+        for (int slot = 0; slot < this.store.getCount(); ++slot) {
+            if (this.isDue(this.store.getDenominatorX(slot)) || this.isDue(this.store.getDenominatorY(slot))) {
+                if (due == this.dueObjects.length) {
+                    this.dueObjects = Arrays.copyOf(this.dueObjects, due * 2);
+                }
+                this.dueObjects[due++] = this.store.getHandle(slot);
+            }
+        }
+
+        for (int i = 0; i < due; ++i) {
+            GameObject object = this.dueObjects[i];
+            this.dueObjects[i] = null;
+
+            Integer slot = object.getSlot();
+            if (slot == null || this.gameObjects.get(object.getId()) != object) {
+                continue;
+            }
+
+            int x = this.store.getX(slot);
+            int y = this.store.getY(slot);
+            int nextX = EntityStore.advance(x, this.store.getNumeratorX(slot), this.store.getDenominatorX(slot), this.ticks);
+            int nextY = EntityStore.advance(y, this.store.getNumeratorY(slot), this.store.getDenominatorY(slot), this.ticks);
+
+            if (nextX != x || nextY != y) {
+                this.onMove(object, nextX, nextY);
+            }
+        }
+
+        if (this.ticks % CORRECTION_TICKS == 0) {
+            // The delta stream reduces these to the coordinates of entities that move
+            for (int slot = 0; slot < this.store.getCount(); ++slot) {
+                if (this.store.getDenominatorX(slot) != 0 || this.store.getDenominatorY(slot) != 0) {
+                    this.outputQueue.add(this.store.getHandle(slot).makePutCommand());
+                }
+            }
+
+            this.commit();
+        }
+    }
+
+    /**
+     * Indicates whether an axis with the given ticks between moves moves on the current tick
+     * @param denominator ticks between moves along the axis, 0 for none
+     * @return true if the entity moves along the axis on this tick, false otherwise
+     */
+    private Boolean isDue(int denominator) {
+        return denominator > 0 && this.ticks % denominator == 0;
+    }
+
+    /**
+     * Stops everything the game has scheduled, freezing every entity where it is. Output that was waiting for its
+     * flush window is sent right away
+     */
+    private void stopScheduling() {
+        // The tick and the flush window are kept off the timer scope: the 10 ms timer wheel would round their
+        // periods up, so they run on the executor and are cancelled here instead
+        if (this.simulation != null) {
+            this.simulation.cancel(false);
+            this.simulation = null;
+        }
+
+        this.timers.close();
+        if (this.pendingFlush != null) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Indicates whether a move is too far from the last tested position of its entity to merge it with the
+     * previous ones
+     * @param move reported move
+     * @return true if the pending position must be tested first, false otherwise
+     */
+    private Boolean exceedsCoalescedStep(Move move) {
+        GameObject object = this.gameObjects.get(move.getObjectId());
+        if (object == null) {
+            return false;
         }
+
+        Position current = object.getPosition();
+        return Math.abs(move.getPosition().getX() - current.getX()) >= MAX_COALESCED_STEP
+                || Math.abs(move.getPosition().getY() - current.getY()) >= MAX_COALESCED_STEP;
     }
 
     /**
@@ -128,8 +438,8 @@ public class Game implements GameObjectObserver {
      * @param position hypothetical position
      * @return A `Placement` object that describes collision aspects
      */
-    public synchronized Placement testCollisions(GameObject object, Position position) {
-        return new Placement(object, position, this.level, this.gameObjects.values(), false);
+    public Placement testCollisions(GameObject object, Position position) {
+        return new Placement(this.level, this.grid).test(object, position.getX(), position.getY());
     }
     public Boolean isValidPosition(Position position){
         return position.getX() >= 0 && position.getX() <= 240 && position.getY() >= 25 && position.getY() <= 175;
@@ -139,28 +449,68 @@ public class Game implements GameObjectObserver {
      * @param objectId entity identifier that was moved
      * @param position position of the entity to manage
      */
-    public synchronized void onMove(Integer objectId, Position position) {
+    public void onMove(Integer objectId, Position position) {
         GameObject object = this.gameObjects.get(objectId);
         if (object == null) {
             // The entity was probably recently deleted
             return;
         }
 
-        // Crash and collision cases are tested
-        Placement placement = new Placement(object, position, this.level, this.gameObjects.values());
+        this.onMove(object, position.getX(), position.getY());
+    }
+
+    /**
+     * Moves an entity of the game and resolves its collisions, without allocating along the way since the tick
+     * does it for every moving entity
+     * @param object entity to move
+     * @param x horizontal coordinate the entity moves to
+     * @param y vertical coordinate the entity moves to
+     */
+    private void onMove(GameObject object, int x, int y) {
+        // Crash and collision cases are tested. The placement is shared, so its results are read before anything
+        // that could move another entity
+        this.placement.test(object, x, y);
+        Orientation hitOrientation = this.placement.getHitOrientation();
+        GameObject target = this.placement.getInteractionTarget();
 
-        Orientation hitOrientation = placement.getHitOrientation();
         if (hitOrientation != null) {
             // The speculative movement of clients is counteracted
             object.getMode().onHit(object, hitOrientation);
         } else {
-            object.relocate(position);
+            object.relocate(x, y);
+        }
+
+        this.interact(object, x, y, target);
+
+        if (object instanceof Formation formation) {
+            // Members collide where the step left them, as if each of them had moved there
+            for (int index = formation.nextMember(0); index >= 0; index = formation.nextMember(index + 1)) {
+                Enemy member = formation.getMember(index);
+                if (this.gameObjects.get(member.getId()) == member) {
+                    int memberX = member.getX();
+                    int memberY = member.getY();
+                    this.interact(member, memberX, memberY, this.placement.test(member, memberX, memberY).getInteractionTarget());
+                }
+            }
         }
+    }
 
-        GameObject target = placement.getInteractionTarget();
+    /**
+     * Resolves what an entity runs into after moving
+     * @param object entity that moved
+     * @param x horizontal coordinate the entity moved to
+     * @param y vertical coordinate the entity moved to
+     * @param target entity it collided with, or null if none
+     */
+    private void interact(GameObject object, int x, int y, GameObject target) {
         if(target != null && target.getDynamics() == Dynamics.RIGID){
             object.delete();
-            target.delete();
+
+            if (target instanceof Bunker) {
+                this.erode((Bunker)target, new Bounds(new Position(x, y), object.getSize()));
+            } else {
+                target.delete();
+            }
         }
 
         if(target != null && target.getDynamics() == Dynamics.INTERACTIVE && object instanceof PlayerShot){
@@ -189,6 +539,21 @@ public class Game implements GameObjectObserver {
         }
     }
 
+    /**
+     * Clears the part of a bunker that was hit, deleting it once nothing is left
+     * @param bunker bunker that was hit
+     * @param impact collision box of what hit it
+     */
+    private void erode(Bunker bunker, Bounds impact) {
+        List<Integer> cleared = bunker.erode(impact);
+        if (bunker.isDestroyed()) {
+            bunker.delete();
+        } else if (!cleared.isEmpty()) {
+            this.outputQueue.add(Command.cmdErase(bunker.getId(), cleared));
+            this.commit();
+        }
+    }
+
     /**
      * Resets the game on collision.
      * @param target
@@ -198,30 +563,17 @@ public class Game implements GameObjectObserver {
 
         this.score = 0;
         this.lives = 3;
+        this.timers.cancel(this.enemiesShooting);
         this.enemiesShooting = null;
 
         this.log("You lost");
-        this.log("Begin level reset");
-        this.player = null;
-
-        // Old objects from the past instance are removed
-        for (GameObject obj : this.gameObjects.values()) {
-            this.outputQueue.add(obj.makeDeleteCommand());
-        }
-
-        // it cleans
-        this.gameObjects.clear();
-        this.syncStats();
-        this.commit();
-
-        // start of level
-        this.player = this.level.setup(this, this.score, this.lives);
+        this.reset();
     }
 
     /**
      * Restart current level
      */
-    private synchronized void reset() {
+    private void reset() {
         this.log("Begin level reset");
         // `this.player == null` silences log messages (avoiding spam on reset)
         this.player = null;
@@ -233,6 +585,10 @@ public class Game implements GameObjectObserver {
 
         // it cleans
         this.gameObjects.clear();
+        this.index.clear();
+        this.grid.clear();
+        this.store.clear();
+        this.shooters.clear();
         this.syncStats();
         this.commit();
 
@@ -260,27 +616,95 @@ public class Game implements GameObjectObserver {
     }
 
     /**
-     * Send the stored commands on the waiting list
+     * Schedules the stored commands on the waiting list to be sent once the current flush window ends, so that
+     * all the changes within the window reach the clients together
      */
     private void commit() {
-        for (Client client : this.clients.values()) {
-            client.sendBatch(this.outputQueue);
+        if (this.flushInterval == 0) {
+            // Sent once the game loop runs out of events
+            this.outputPending = true;
+        } else if (this.pendingFlush == null && !this.clients.isEmpty()) {
+            // Still scheduled after the timers are closed, since spectators may remain once the player has left
+            this.pendingFlush = TaskExecutor.getInstance().schedule(() -> this.post(this::flush), this.flushInterval);
+        }
+    }
+
+    /**
+     * Send the stored commands on the waiting list right away, without redundant commands
+     */
+    private void flush() {
+        // A flush that comes before its window ends takes the window with it
+        if (this.pendingFlush != null) {
+            this.pendingFlush.cancel(false);
+            this.pendingFlush = null;
         }
+
+        if (this.outputQueue.isEmpty()) {
+            return;
+        }
+
+        this.broadcaster.send(this.outputQueue.coalesce(), this.clients.values());
         this.outputQueue.clear();
     }
 
     // Called when deleting an entity
     @Override
-    public synchronized void onObjectDeleted(GameObject object) {
+    public void onObjectDeleted(GameObject object) {
+        // Deletions are as frequent as spawns, so they are logged alongside them at the debug level
+        if (Log.getInstance().isEnabled(LogLevel.DEBUG)) {
+            Log.getInstance().debug(LogCategory.SPAWN, "[GAME-" + this.playerId + "] Object " + object.getId() + " deleted");
+        }
+
         this.outputQueue.add(object.makeDeleteCommand());
         this.gameObjects.remove(object.getId());
+        this.index.remove(object);
+        this.grid.remove(object);
+        this.store.release(object);
+        if (object instanceof Enemy enemy) {
+            this.shooters.remove(enemy);
+        } else if (object instanceof PlayerShot shot) {
+            this.playerShots.release(shot);
+        } else if (object instanceof EnemyShot shot) {
+            this.enemyShots.release(shot);
+        }
+
+        if (object instanceof Enemy enemy && enemy.getFormation() != null) {
+            Formation formation = enemy.getFormation();
+            formation.dismiss(enemy);
+
+            if (formation.isEmpty()) {
+                formation.delete();
+            } else if (formation.getSlot() != null) {
+                // The box around the surviving members may have shrunk
+                this.store.refresh(formation);
+                this.grid.update(formation);
+            }
+        }
 
         this.commit();
     }
 
+    // Called when moving an entity
+    @Override
+    public void onObjectRelocated(GameObject object) {
+        this.grid.update(object);
+    }
+
     // Called when changing the mode of an entity
     @Override
-    public synchronized void onObjectModeChanged(GameObject object) {
+    public void onObjectModeChanged(GameObject object) {
+        Dynamics previous = this.index.update(object);
+        if (previous != null && previous != object.getDynamics()) {
+            if (object.getDynamics() == Dynamics.FLOATING) {
+                this.grid.remove(object);
+            } else if (previous == Dynamics.FLOATING) {
+                this.grid.insert(object);
+            }
+        }
+
+        // The new sprite sequence may have another size
+        this.grid.update(object);
+
         if (object == this.player) {
             // The player could have died or changed their stats
             this.updateStats();
@@ -296,7 +720,7 @@ public class Game implements GameObjectObserver {
      */
     @Override
     public void log(String message) {
-        System.out.println("[GAME-" + this.playerId + "] " + message);
+        Log.getInstance().info(LogCategory.GAME, "[GAME-" + this.playerId + "] " + message);
     }
 
     /**
@@ -306,6 +730,28 @@ public class Game implements GameObjectObserver {
         return this.playerId;
     }
 
+    /**
+     * @return shard the game runs on
+     */
+    public GameShard getShard() {
+        return this.shard;
+    }
+
+    /**
+     * @return seed the randomness of the game started from
+     */
+    public Long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the source of randomness of the game. It may only be used from the game loop
+     * @return random number generator of the game
+     */
+    public SplittableRandom getRandom() {
+        return this.random;
+    }
+
     /**
      * Gets the difficulty of the current state of the game
      * @return game difficulty level
@@ -322,18 +768,57 @@ public class Game implements GameObjectObserver {
         return this.gameObjects;
     }
 
+    /**
+     * Gets a player shot ready to be spawned, recycled from a deleted one if possible
+     * @param difficulty difficulty of the game
+     * @param position position of the shot
+     * @return shot to spawn
+     */
+    public PlayerShot acquirePlayerShot(Integer difficulty, Position position) {
+        return this.playerShots.acquire(difficulty, position);
+    }
+
+    /**
+     * Gets an enemy shot ready to be spawned, recycled from a deleted one if possible
+     * @param difficulty difficulty of the game
+     * @param position position of the shot
+     * @return shot to spawn
+     */
+    public EnemyShot acquireEnemyShot(Integer difficulty, Position position) {
+        return this.enemyShots.acquire(difficulty, position);
+    }
+
+    /**
+     * Gets the indexes by dynamics and kind of the entities in the game
+     * @return entity indexes
+     */
+    public EntityIndex getIndex() {
+        return this.index;
+    }
+
     /**
      * Adds an entity to the game scenario of the match
      */
-    public synchronized <T extends GameObject> T spawn(T object) {
+    public <T extends GameObject> T spawn(T object) {
         this.gameObjects.put(object.getId(), object);
+        this.index.add(object);
+        this.store.attach(object);
+
+        // Nothing collides against floating entities, so the collision grid leaves them out
+        if (object.getDynamics() != Dynamics.FLOATING) {
+            this.grid.insert(object);
+        }
+        if (object instanceof Enemy enemy && !(object instanceof Saucer)) {
+            this.shooters.add(enemy);
+        }
+
         this.onObjectModeChanged(object);
 
         object.addObserver(this);
 
-        // Avoid spam during reset()
-        if (this.player != null) {
-            this.log("New object " + object);
+        // Avoid spam during reset(), and building the message at all unless spawns are logged
+        if (this.player != null && Log.getInstance().isEnabled(LogLevel.DEBUG)) {
+            Log.getInstance().debug(LogCategory.SPAWN, "[GAME-" + this.playerId + "] New object " + object);
         }
 
         return object;
@@ -343,8 +828,7 @@ public class Game implements GameObjectObserver {
      * Adds a list of entities to the game stage
      * @param objects array of entities to add
      */
-    public synchronized void spawn(GameObject[] objects) {
-        // It is not the same as doing it from outside, note that synchronized is preserved
+    public void spawn(GameObject[] objects) {
         for (GameObject object : objects) {
             this.spawn(object);
         }
@@ -352,64 +836,72 @@ public class Game implements GameObjectObserver {
 
     /**
      * Makes enemies hostile, so they start shooting.
-     * @throws Exception exception in case of malfunctioning thread.
-     */
-    public synchronized void enemiesStartShooting() throws Exception {
-        // Lambda for threading.
-        Runnable shooting = () -> {
-            while(true){
-                try{
-                    HashSet<Integer> enemyObjectsIDs = new HashSet<>();
-                    HashMap<Integer, GameObject> objects = this.gameObjects;
-
-                    // Detects every enemy on the GameObjects HashMap.
-                    for(GameObject object : objects.values()){
-                        if(object instanceof Octopus || object instanceof Squid || object instanceof Crab){
-                            enemyObjectsIDs.add(object.getId());
-                        }
-                    }
-
-                    // In case there is no enemies generated on the HashMap.
-                    if(enemyObjectsIDs.size() > 0){
-                        // Selects a random enemy to shot.
-                        Integer[] enemyObjectsIDsArray = enemyObjectsIDs.toArray(new Integer[enemyObjectsIDs.size()]);
-
-                        Random rand = new Random();
-                        Integer randomPos = 0;
-
-                        randomPos = rand.nextInt(enemyObjectsIDsArray.length);
-
-                        Enemy enemyShooting = (Enemy) objects.get(enemyObjectsIDsArray[randomPos]);
-
-                        // Creates a custom position to spawn the shot.
-                        Position customPos = enemyShooting.getPosition();
-                        customPos.setX(customPos.getX() + 2);
-                        customPos.setY(customPos.getY() + 2);
-
-                        // Spawns the shot.
-                        enemyShooting.createShot(customPos);
-
-                        // Delay for the next shot (Difficulty in order of the amount of enemies, the most enemies, the game get harder).
-                        if(enemyObjectsIDsArray.length <= 9){
-                            sleep(2500);
-                        }else if(enemyObjectsIDsArray.length <= 18){
-                            sleep(2000);
-                        }else{
-                            sleep(1500);
-                        }
-                    }else{
-                        sleep(1000);
-                    }
-                }catch (InterruptedException e){
-                    throw new RuntimeException(e);
-                }
-            }
-        };
+     */
+    public void enemiesStartShooting() {
+        // Enemies share a single firing cadence
+        if (this.enemiesShooting == null) {
+            this.enemiesShooting = this.schedule(this::enemiesShoot, 0);
+        }
+    }
 
-        // To avoid multi threading.
-        if(enemiesShooting == null){
-            enemiesShooting = new Thread(shooting);
+    /**
+     * Makes a random enemy shoot and schedules the next shot, which comes sooner the more enemies there are
+     */
+    private void enemiesShoot() {
+        Integer delay = ENEMY_FIRE_IDLE_MILLIS;
+
+        // Selects a random enemy among the lowest of every column
+        Enemy enemyShooting = this.shooters.pick(this.random);
+        if (enemyShooting != null) {
+            // Creates a custom position to spawn the shot.
+            Position enemyPos = enemyShooting.getPosition();
+            enemyShooting.createShot(new Position(enemyPos.getX() + 2, enemyPos.getY() + 2));
+
+            // Delay for the next shot (Difficulty in order of the amount of enemies, the most enemies, the game get harder).
+            Integer enemies = this.shooters.getEnemies();
+            if (enemies <= 9) {
+                delay = 2500;
+            } else if (enemies <= 18) {
+                delay = 2000;
+            } else {
+                delay = 1500;
+            }
         }
-        enemiesShooting.start();
+
+        this.enemiesShooting = this.schedule(this::enemiesShoot, delay);
+    }
+
+    /**
+     * Makes a flying saucer cross the screen from a random side once a delay has elapsed
+     * @param score score given by the saucer
+     * @param delayMillis delay in milliseconds
+     */
+    public void scheduleSaucer(Integer score, Integer delayMillis) {
+        this.schedule(() -> {
+            if (this.random.nextInt(2) == 0) {
+                this.spawn(new Saucer(0, HorizontalDirection.LEFT, new Position(256, 50), score, this));
+            } else {
+                this.spawn(new Saucer(0, HorizontalDirection.RIGHT, new Position(0, 50), score, this));
+            }
+        }, delayMillis);
+    }
+
+    /**
+     * Runs a task on the game once a delay has elapsed, unless it is cancelled or the game ends before that.
+     * The task runs on the game loop
+     * @param task task to run
+     * @param delayMillis delay in milliseconds
+     * @return handle that can be used to cancel the task, or null if the game already ended
+     */
+    public Timeout schedule(Runnable task, Integer delayMillis) {
+        // The handle is assigned before the event can run, since this is called from the game loop
+        Timeout[] self = new Timeout[1];
+        self[0] = this.timers.schedule(() -> this.post(() -> {
+            if (!self[0].isCancelled()) {
+                task.run();
+            }
+        }), delayMillis);
+
+        return self[0];
     }
 }
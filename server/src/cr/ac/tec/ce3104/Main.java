@@ -1,11 +1,30 @@
 package cr.ac.tec.ce3104;
 
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.scheduling.TaskExecutor;
+
 public class Main {
     /**
      * Program entry point
      * @param args command line parameters
      */
     public static void main(String[] args) {
-        Server.getInstance().startUp();
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException exception) {
+            System.err.println("Error: " + exception.getMessage());
+            System.err.println("Usage: server [--transport=blocking|nio] [--event-loops=<n>] [--threads=platform|virtual]"
+                    + " [--flush-interval=<ms>] [--outbound-limit=<KiB>] [--slow-clients=disconnect|resync]"
+                    + " [--authority=server|client] [--game-shards=<n>] [--max-games=<n>]"
+                    + " [--seed=<n>] [--log-level=debug|info|warn|error] [--log-file=<path>]"
+                    + " [--log-sample=<category>:<n>,...]");
+            System.exit(1);
+            return;
+        }
+
+        Log.configure(options.getLogLevel(), options.getLogSampling(), options.getLogFile());
+        TaskExecutor.configure(options.getThreads());
+        Server.getInstance().startUp(options);
     }
 }
\ No newline at end of file
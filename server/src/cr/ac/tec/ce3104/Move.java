@@ -0,0 +1,35 @@
+package cr.ac.tec.ce3104;
+
+import cr.ac.tec.ce3104.physics.Position;
+
+// Position that a client reports for an entity it simulates
+public class Move {
+    private Integer objectId;
+    private Position position;
+
+    /**
+     * Creates a reported move
+     * @param objectId id of the entity that moved
+     * @param position position reported by the client
+     */
+    public Move(Integer objectId, Position position) {
+        this.objectId = objectId;
+        this.position = position;
+    }
+
+    /**
+     * Gets the id of the entity that moved
+     * @return entity id
+     */
+    public Integer getObjectId() {
+        return this.objectId;
+    }
+
+    /**
+     * Gets the position reported by the client
+     * @return reported position
+     */
+    public Position getPosition() {
+        return this.position;
+    }
+}
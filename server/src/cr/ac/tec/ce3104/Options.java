@@ -0,0 +1,238 @@
+package cr.ac.tec.ce3104;
+
+import cr.ac.tec.ce3104.comms.SlowClientPolicy;
+import cr.ac.tec.ce3104.comms.TransportType;
+import cr.ac.tec.ce3104.logging.LogCategory;
+import cr.ac.tec.ce3104.logging.LogLevel;
+import cr.ac.tec.ce3104.scheduling.ThreadMode;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+
+// Server startup parameters, given on the command line as `--name=value` flags
+public class Options {
+    private TransportType transport = TransportType.BLOCKING;
+    private Integer eventLoops = 2;
+    private ThreadMode threads = ThreadMode.PLATFORM;
+    private Integer flushInterval = 33;
+    private Integer outboundLimit = 256;
+    private SlowClientPolicy slowClients = SlowClientPolicy.RESYNC;
+    private Authority authority = Authority.SERVER;
+    private Integer gameShards = Runtime.getRuntime().availableProcessors();
+    private Integer maxGames = 2;
+    private Long seed = null;
+    private LogLevel logLevel = LogLevel.INFO;
+    private Path logFile = null;
+    private EnumMap<LogCategory, Integer> logSampling = new EnumMap<>(LogCategory.class);
+
+    /**
+     * Builds the startup parameters from the command line
+     * @param args command line parameters
+     * @return parsed startup parameters
+     * @throws IllegalArgumentException if a flag is unknown or has a bad value
+     */
+    public static Options parse(String[] args) {
+        Options options = new Options();
+        for (String arg : args) {
+            Integer separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("bad flag: " + arg);
+            }
+
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "transport" -> options.transport = TransportType.parse(value);
+                case "event-loops" -> options.eventLoops = Options.expectPositive(name, value);
+                case "threads" -> options.threads = ThreadMode.parse(value);
+                case "flush-interval" -> options.flushInterval = Options.expectNonNegative(name, value);
+                case "outbound-limit" -> options.outboundLimit = Options.expectPositive(name, value);
+                case "slow-clients" -> options.slowClients = SlowClientPolicy.parse(value);
+                case "authority" -> options.authority = Authority.parse(value);
+                case "game-shards" -> options.gameShards = Options.expectPositive(name, value);
+                case "max-games" -> options.maxGames = Options.expectPositive(name, value);
+                case "seed" -> options.seed = Options.expectLong(name, value);
+                case "log-level" -> options.logLevel = LogLevel.parse(value);
+                case "log-file" -> options.logFile = Path.of(value);
+                case "log-sample" -> Options.parseSampling(value, options.logSampling);
+                default -> throw new IllegalArgumentException("unknown flag: --" + name);
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * Parses a strictly positive integer flag value
+     * @param name flag name, used for error messages
+     * @param value textual value of the flag
+     * @return parsed value
+     */
+    private static Integer expectPositive(String name, String value) {
+        try {
+            Integer parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException exception) {
+            // Reported below
+        }
+
+        throw new IllegalArgumentException("--" + name + " expects a positive integer");
+    }
+
+    /**
+     * Parses a non-negative integer flag value
+     * @param name flag name, used for error messages
+     * @param value textual value of the flag
+     * @return parsed value
+     */
+    private static Integer expectNonNegative(String name, String value) {
+        try {
+            Integer parsed = Integer.parseInt(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException exception) {
+            // Reported below
+        }
+
+        throw new IllegalArgumentException("--" + name + " expects a non-negative integer");
+    }
+
+    /**
+     * Parses a list of `<category>:<n>` pairs, meaning that only one debug or info message out of n is logged for
+     * that category
+     * @param value textual value of the flag
+     * @param sampling where the parsed rates are stored
+     */
+    private static void parseSampling(String value, EnumMap<LogCategory, Integer> sampling) {
+        for (String pair : value.split(",")) {
+            Integer separator = pair.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("--log-sample expects <category>:<n> pairs");
+            }
+
+            sampling.put(LogCategory.parse(pair.substring(0, separator)), Options.expectPositive("log-sample", pair.substring(separator + 1)));
+        }
+    }
+
+    /**
+     * Parses a 64-bit integer flag value
+     * @param name flag name, used for error messages
+     * @param value textual value of the flag
+     * @return parsed value
+     */
+    private static Long expectLong(String name, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("--" + name + " expects an integer");
+        }
+    }
+
+    /**
+     * Gets which connection engine the server must use
+     * @return transport type
+     */
+    public TransportType getTransport() {
+        return this.transport;
+    }
+
+    /**
+     * Gets how many event-loop threads share the connections when using the non-blocking transport
+     * @return number of event loops
+     */
+    public Integer getEventLoops() {
+        return this.eventLoops;
+    }
+
+    /**
+     * Gets the kind of threads on which client sessions and game tasks run
+     * @return thread mode
+     */
+    public ThreadMode getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Gets for how many milliseconds game updates are accumulated before being sent to clients. The default
+     * matches one client tick (30 Hz), 0 sends every update as soon as it happens
+     * @return flush window in milliseconds
+     */
+    public Integer getFlushInterval() {
+        return this.flushInterval;
+    }
+
+    /**
+     * Gets how much data may be waiting to be written to a single client before it is considered too slow
+     * @return outbound limit in KiB
+     */
+    public Integer getOutboundLimit() {
+        return this.outboundLimit;
+    }
+
+    /**
+     * Gets what to do with clients that are too slow
+     * @return slow client policy
+     */
+    public SlowClientPolicy getSlowClients() {
+        return this.slowClients;
+    }
+
+    /**
+     * Gets which side simulates the motion of entities
+     * @return simulation authority
+     */
+    public Authority getAuthority() {
+        return this.authority;
+    }
+
+    /**
+     * Gets how many worker threads the games are spread across. The default is one per core
+     * @return number of game shards
+     */
+    public Integer getGameShards() {
+        return this.gameShards;
+    }
+
+    /**
+     * Gets how many games may be running at once
+     * @return game capacity
+     */
+    public Integer getMaxGames() {
+        return this.maxGames;
+    }
+
+    /**
+     * Gets the seed every game starts from, so that runs can be replayed
+     * @return random seed, or null if every game picks its own
+     */
+    public Long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the least important log messages that are kept
+     * @return log level
+     */
+    public LogLevel getLogLevel() {
+        return this.logLevel;
+    }
+
+    /**
+     * Gets the file the log is also written to, rolled once it grows too large
+     * @return log file, or null to only log to the standard output
+     */
+    public Path getLogFile() {
+        return this.logFile;
+    }
+
+    /**
+     * Gets the categories of which only one debug or info message out of several is kept
+     * @return sampling rate by category, categories that are not present are not sampled
+     */
+    public EnumMap<LogCategory, Integer> getLogSampling() {
+        return this.logSampling;
+    }
+}
@@ -1,23 +1,34 @@
 package cr.ac.tec.ce3104;
 
 import cr.ac.tec.ce3104.comms.Client;
+import cr.ac.tec.ce3104.comms.EventLoopGroup;
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
+import cr.ac.tec.ce3104.scheduling.ShardGroup;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Server {
     // Singleton pattern
     private static Server instance;
     private static final Integer PORT = 8080;
 
-    // Passive socket
-    private ServerSocket serverSocket;
+    // Startup parameters
+    private Options options = new Options();
 
-    // Active games
-    private HashMap<Integer, Game> games = new HashMap<>();
+    // Active games, looked up by client threads without locking
+    private ConcurrentHashMap<Integer, Game> games = new ConcurrentHashMap<>();
+    // Games that are running or being created, checked against the capacity
+    private AtomicInteger reservedGames = new AtomicInteger(0);
+    private ShardGroup shards;
 
     // Management console
     private AdminWindow adminWindow;
@@ -36,48 +47,85 @@ public class Server {
     /**
      * Private constructor since the class is a Singleton
      */
-    private Server() {
+    private Server() {}
+
+    /**
+     * Execute an infinite loop in search of new clients
+     * @param options startup parameters
+     */
+    public void startUp(Options options) {
+        this.options = options;
+        this.shards = new ShardGroup(options.getGameShards());
+
         try {
-            serverSocket = new ServerSocket(PORT);
+            this.adminWindow = new AdminWindow();
+            switch (options.getTransport()) {
+                case BLOCKING -> this.acceptBlocking();
+                case NIO -> this.acceptNonBlocking();
+            }
         } catch (IOException exception) {
-            exception.printStackTrace();
-
-            System.out.println("Fatal error: unable to start server");
+            Log.getInstance().error(LogCategory.SERVER, "Fatal error: unable to start server", exception);
             System.exit(-1);
         }
     }
 
     /**
-     * Execute an infinite loop in search of new clients
+     * Accepts clients that are each served by their own thread
+     * @throws IOException error that can occur if the passive socket fails
      */
-    public void startUp() {
-        try {
-            this.adminWindow = new AdminWindow(System.out);
-            System.out.println("[SERVER] Listening on 127.0.0.1:" + PORT + "...");
-
-            // Main loop for listening to new clients
-            while (true) {
-                // Start a new connection with the client
-                Client client = new Client(this.serverSocket.accept());
-                System.out.println("[SERVER] Accepted connection from client " + client);
-            }
-        } catch (IOException exception) {
-            exception.printStackTrace();
+    private void acceptBlocking() throws IOException {
+        ServerSocket serverSocket = new ServerSocket(PORT);
+        Log.getInstance().info(LogCategory.SERVER, "[SERVER] Listening on 127.0.0.1:" + PORT + "...");
+
+        // Main loop for listening to new clients
+        while (true) {
+            // Start a new connection with the client
+            Client client = new Client(serverSocket.accept());
+            Log.getInstance().info(LogCategory.CLIENT, "[SERVER] Accepted connection from client " + client);
+        }
+    }
+
+    /**
+     * Accepts clients that are multiplexed over a fixed number of event loops
+     * @throws IOException error that can occur if the passive socket fails
+     */
+    private void acceptNonBlocking() throws IOException {
+        EventLoopGroup loops = new EventLoopGroup(this.options.getEventLoops());
+
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(PORT));
+        Log.getInstance().info(LogCategory.SERVER, "[SERVER] Listening on 127.0.0.1:" + PORT + " with " + this.options.getEventLoops() + " event loops...");
+
+        // The acceptor blocks, connections are then handed over to the event loops
+        while (true) {
+            Client client = loops.adopt(serverChannel.accept());
+            Log.getInstance().info(LogCategory.CLIENT, "[SERVER] Accepted connection from client " + client);
         }
     }
 
+    /**
+     * Gets the parameters the server was started with
+     * @return startup parameters
+     */
+    public Options getOptions() {
+        return this.options;
+    }
+
     /**
      * Initializes a new game with the given client as the player client
      * @param player client to be registered as the player client of the game to create
      * @return play with the given client as a player
      */
     public Game initPlayer(Client player) {
-        if (this.games.size() >= 2) {
+        if (this.reservedGames.incrementAndGet() > this.options.getMaxGames()) {
+            this.reservedGames.decrementAndGet();
+
             player.sendError("the maximum number of active games has been reached");
             return null;
         }
 
-        Game game = new Game(player);
+        Long seed = this.options.getSeed() != null ? this.options.getSeed() : ThreadLocalRandom.current().nextLong();
+        Game game = new Game(player, this.options.getFlushInterval(), this.options.getAuthority(), this.shards.place(), seed);
         this.games.put(game.getPlayerId(), game);
 
         return game;
@@ -96,7 +144,9 @@ public class Server {
      * @param gameId game id to be removed
      */
     public void removeGame(Integer gameId) {
-        this.games.remove(gameId);
+        if (this.games.remove(gameId) != null) {
+            this.reservedGames.decrementAndGet();
+        }
     }
 
     /**
@@ -106,4 +156,12 @@ public class Server {
     public List<Integer> getGameIds() {
         return new ArrayList<>(this.games.keySet());
     }
+
+    /**
+     * Gets the worker threads the games run on
+     * @return game shards
+     */
+    public ShardGroup getShards() {
+        return this.shards;
+    }
 }
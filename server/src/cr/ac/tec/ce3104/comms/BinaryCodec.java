@@ -0,0 +1,135 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compact length-prefixed encoding. Every command is a frame made of a varint payload length followed by
+ * its fields. Each field starts with a tag byte `(key << 2) | type`, where `key` indexes `KEYS` and `type`
+ * is one of the `TYPE_*` constants. Integers are zigzag varints, strings are a varint length followed by
+ * UTF-8 bytes, symbols are a varint index into `SYMBOLS` and lists are a varint count followed by zigzag
+ * varints. Both dictionaries must match the ones in the client (`client/net.c`)
+ */
+public class BinaryCodec implements Codec {
+    private static final Integer TYPE_INT = 0;
+    private static final Integer TYPE_STRING = 1;
+    private static final Integer TYPE_SYMBOL = 2;
+    private static final Integer TYPE_LIST = 3;
+
+    // Field keys, indexed by their position
+    private static final List<String> KEYS = List.of(
+            "op", "id", "x", "y", "z", "num_x", "num_y", "denom_x", "denom_y", "seq",
+            "lives", "score", "width", "height", "error", "whoami", "games", "key", "init", "codec",
+            "mask", "cells", "parent"
+    );
+
+    // String values that are common enough to be sent as a single index
+    private static final List<String> SYMBOLS = List.of(
+            "put", "delete", "stats", "move", "highlight", "unhighlight", "bye", "press", "release",
+            "resync", "reset", "erase"
+    );
+
+    // Scratch buffer where the payload is built before its length is known
+    private static final ThreadLocal<ByteArrayOutputStream> PAYLOAD = ThreadLocal.withInitial(ByteArrayOutputStream::new);
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public void encode(Command command, ByteArrayOutputStream output) {
+        ByteArrayOutputStream payload = PAYLOAD.get();
+        payload.reset();
+
+        for (int i = 0; i < command.getFieldCount(); ++i) {
+            BinaryCodec.encodeField(command, i, payload);
+        }
+
+        BinaryCodec.writeVarint(payload.size(), output);
+        try {
+            payload.writeTo(output);
+        } catch (IOException exception) {
+            // Writing between in-memory buffers does not fail
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Appends a tagged field
+     * @param command command that has the field
+     * @param index position of the field
+     * @param output buffer to append to
+     */
+    private static void encodeField(Command command, int index, ByteArrayOutputStream output) {
+        Integer keyIndex = KEYS.indexOf(command.getKey(index));
+        if (keyIndex < 0) {
+            throw new IllegalArgumentException("key has no binary encoding: " + command.getKey(index));
+        }
+
+        Object value = command.getObject(index);
+        switch (command.getType(index)) {
+            case Command.TYPE_INT -> {
+                output.write(keyIndex << 2 | TYPE_INT);
+                BinaryCodec.writeVarint(BinaryCodec.zigzag(command.getInt(index)), output);
+            }
+            case Command.TYPE_STRING -> {
+                String string = (String)value;
+                if (SYMBOLS.contains(string)) {
+                    output.write(keyIndex << 2 | TYPE_SYMBOL);
+                    BinaryCodec.writeVarint(SYMBOLS.indexOf(string), output);
+                } else {
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    output.write(keyIndex << 2 | TYPE_STRING);
+                    BinaryCodec.writeVarint(bytes.length, output);
+                    output.writeBytes(bytes);
+                }
+            }
+            case Command.TYPE_INT_ARRAY -> {
+                int[] values = (int[])value;
+                output.write(keyIndex << 2 | TYPE_LIST);
+                BinaryCodec.writeVarint(values.length, output);
+                for (int item : values) {
+                    BinaryCodec.writeVarint(BinaryCodec.zigzag(item), output);
+                }
+            }
+            default -> {
+                List<?> list = (List<?>)value;
+                output.write(keyIndex << 2 | TYPE_LIST);
+                BinaryCodec.writeVarint(list.size(), output);
+                for (Object item : list) {
+                    if (!(item instanceof Number number)) {
+                        throw new IllegalArgumentException("list item has no binary encoding: " + item);
+                    }
+                    BinaryCodec.writeVarint(BinaryCodec.zigzag(number.intValue()), output);
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps signed integers to unsigned ones so that small magnitudes stay short
+     * @param value signed integer
+     * @return zigzag-encoded integer
+     */
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Appends an unsigned integer using 7 bits per byte, least significant group first
+     * @param value unsigned integer
+     * @param output buffer to append to
+     */
+    private static void writeVarint(int value, ByteArrayOutputStream output) {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            output.write((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        output.write(remaining);
+    }
+}
@@ -0,0 +1,83 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sends the updates of a game to all of its clients, encoding each batch once per codec in use. Every client of
+// the game is in lockstep: all of them know the same state, so they share a single delta stream
+public class Broadcaster {
+    // Totals across every game, shown in the management console
+    private static final AtomicLong encodedBatches = new AtomicLong();
+    private static final AtomicLong encodedBytes = new AtomicLong();
+    private static final AtomicLong clientWrites = new AtomicLong();
+
+    // Entity state last sent to the clients of the game
+    private final DeltaTable deltas = new DeltaTable();
+
+    // Reused to encode each batch
+    private final ByteArrayOutputStream outputBuffer = new ByteArrayOutputStream();
+
+    /**
+     * Sends a batch to every given client. Must not be called concurrently for the same game
+     * @param batch full state updates, already coalesced
+     * @param clients clients of the game
+     */
+    public void send(CommandBatch batch, Collection<Client> clients) {
+        CommandBatch reduced = this.deltas.reduce(batch);
+        if (reduced.isEmpty() || clients.isEmpty()) {
+            return;
+        }
+
+        // Clients that chose the same codec receive the very same bytes
+        HashMap<Codec, ByteBuffer> encoded = new HashMap<>();
+        for (Client client : clients) {
+            ByteBuffer data = encoded.computeIfAbsent(client.getCodec(), codec -> this.encode(codec, reduced));
+
+            // Each client gets its own position and limit over the shared bytes
+            client.sendEncoded(data.duplicate());
+            clientWrites.incrementAndGet();
+        }
+    }
+
+    /**
+     * Encodes a batch in a given codec
+     * @param codec codec to use
+     * @param batch commands to encode
+     * @return encoded bytes, which are never modified afterwards
+     */
+    private ByteBuffer encode(Codec codec, CommandBatch batch) {
+        this.outputBuffer.reset();
+        codec.encode(batch, this.outputBuffer);
+
+        encodedBatches.incrementAndGet();
+        encodedBytes.addAndGet(this.outputBuffer.size());
+        return ByteBuffer.wrap(this.outputBuffer.toByteArray());
+    }
+
+    /**
+     * Gets how many times a batch has been encoded, across every game
+     * @return number of encoded batches
+     */
+    public static Long getEncodedBatches() {
+        return encodedBatches.get();
+    }
+
+    /**
+     * Gets how many bytes have been encoded, across every game
+     * @return number of encoded bytes
+     */
+    public static Long getEncodedBytes() {
+        return encodedBytes.get();
+    }
+
+    /**
+     * Gets how many times an encoded batch has been handed to a client, across every game
+     * @return number of client writes
+     */
+    public static Long getClientWrites() {
+        return clientWrites.get();
+    }
+}
@@ -0,0 +1,227 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// Non-blocking transport over a socket channel, driven by an event loop shared with other clients
+public class ChannelTransport implements Transport {
+    private static final Integer READ_BUFFER_SIZE = 4096;
+    private static final Integer MAX_LINE_SIZE = 64 * 1024;
+    private static final Integer MAX_GATHER = 64;
+
+    private final SocketChannel channel;
+    private final SocketAddress remoteAddress;
+    private final EventLoop loop;
+    private SelectionKey key = null;
+    private Client client = null;
+
+    // Input is split into lines as it arrives
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+
+    // Output that did not fit in the socket buffer, also used as the write lock
+    private final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private final ByteBuffer[] gatheredWrites = new ByteBuffer[MAX_GATHER];
+
+    /**
+     * Wraps an accepted channel, which is switched to non-blocking mode
+     * @param channel accepted client channel
+     * @param loop event loop that will own the channel
+     * @throws IOException error that can occur while configuring the channel
+     */
+    public ChannelTransport(SocketChannel channel, EventLoop loop) throws IOException {
+        this.channel = channel;
+        this.remoteAddress = channel.getRemoteAddress();
+        this.loop = loop;
+
+        this.channel.configureBlocking(false);
+    }
+
+    /**
+     * Associates the client that will receive the lines read from this transport
+     * @param client client managing this connection
+     */
+    void attach(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Registers the channel for reading. Only called from the event loop thread
+     * @param key selection key obtained on registration
+     */
+    void onRegistered(SelectionKey key) {
+        this.key = key;
+        this.requestWrite();
+        this.client.onConnect();
+    }
+
+    /**
+     * Reads what is available and dispatches every complete line. Only called from the event loop thread
+     */
+    void onReadable() {
+        try {
+            if (!this.drainInput()) {
+                this.client.close();
+            }
+        } catch (Exception exception) {
+            this.client.abort(exception);
+        }
+    }
+
+    /**
+     * Writes as much pending output as the socket accepts, handing several buffers to each system call.
+     * Only called from the event loop thread
+     */
+    void onWritable() {
+        try {
+            synchronized (this.pendingWrites) {
+                while (!this.pendingWrites.isEmpty()) {
+                    int count = 0;
+                    for (ByteBuffer buffer : this.pendingWrites) {
+                        if (count == MAX_GATHER) {
+                            break;
+                        }
+                        this.gatheredWrites[count++] = buffer;
+                    }
+
+                    this.channel.write(this.gatheredWrites, 0, count);
+                    Arrays.fill(this.gatheredWrites, 0, count, null);
+
+                    Integer written = 0;
+                    while (!this.pendingWrites.isEmpty() && !this.pendingWrites.peek().hasRemaining()) {
+                        this.pendingWrites.poll();
+                        ++written;
+                    }
+
+                    // The socket buffer is full if part of what was handed over could not be written
+                    if (written < count) {
+                        return;
+                    }
+                }
+
+                this.key.interestOps(SelectionKey.OP_READ);
+            }
+
+            this.client.onDrained();
+        } catch (Exception exception) {
+            this.client.abort(exception);
+        }
+    }
+
+    /**
+     * Splits the available input into lines and hands them to the client
+     * @return false once the connection must end, true otherwise
+     * @throws IOException error that can occur if there are problems reading the socket stream
+     */
+    private Boolean drainInput() throws IOException {
+        this.readBuffer.clear();
+        if (this.channel.read(this.readBuffer) < 0) {
+            return false;
+        }
+
+        this.readBuffer.flip();
+        while (this.readBuffer.hasRemaining()) {
+            byte next = this.readBuffer.get();
+            if (next != '\n') {
+                this.partialLine.write(next);
+                if (this.partialLine.size() > MAX_LINE_SIZE) {
+                    throw new IOException("line too long from " + this.remoteAddress);
+                }
+
+                continue;
+            }
+
+            String line = this.partialLine.toString(StandardCharsets.UTF_8);
+            this.partialLine.reset();
+
+            if (!this.client.onLine(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line)) {
+                return false;
+            }
+        }
+
+        this.client.onInputDrained();
+        return true;
+    }
+
+    @Override
+    public void send(ByteBuffer data) throws IOException {
+        synchronized (this.pendingWrites) {
+            if (!this.channel.isOpen()) {
+                throw new IOException("connection to " + this.remoteAddress + " is closed");
+            }
+
+            // Most writes fit in the socket buffer and never reach the event loop
+            if (this.pendingWrites.isEmpty() && this.key != null) {
+                try {
+                    this.channel.write(data);
+                } catch (IOException exception) {
+                    // A broken connection is not written to again
+                    this.close();
+                    throw exception;
+                }
+
+                if (!data.hasRemaining()) {
+                    return;
+                }
+            }
+
+            this.pendingWrites.add(data);
+        }
+
+        this.loop.execute(this::requestWrite);
+    }
+
+    @Override
+    public Integer getBacklog() {
+        synchronized (this.pendingWrites) {
+            Integer backlog = 0;
+            for (ByteBuffer buffer : this.pendingWrites) {
+                backlog += buffer.remaining();
+            }
+            return backlog;
+        }
+    }
+
+    /**
+     * Subscribes to write readiness while there is pending output
+     */
+    private void requestWrite() {
+        synchronized (this.pendingWrites) {
+            if (this.key != null && this.key.isValid() && !this.pendingWrites.isEmpty()) {
+                this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Closing the channel also cancels its selection key
+        this.channel.close();
+        this.loop.wakeup();
+    }
+
+    @Override
+    public Boolean isClosed() {
+        return !this.channel.isOpen();
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return this.remoteAddress;
+    }
+
+    /**
+     * Gets the underlying channel
+     * @return client channel
+     */
+    SocketChannel getChannel() {
+        return this.channel;
+    }
+}
@@ -1,15 +1,22 @@
 package cr.ac.tec.ce3104.comms;
 
+import cr.ac.tec.ce3104.Authority;
 import cr.ac.tec.ce3104.Game;
 import cr.ac.tec.ce3104.Key;
+import cr.ac.tec.ce3104.Move;
+import cr.ac.tec.ce3104.Options;
 import cr.ac.tec.ce3104.Server;
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
 import cr.ac.tec.ce3104.physics.Position;
+import cr.ac.tec.ce3104.scheduling.TaskExecutor;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 
 // Instances of this class manage a particular client
@@ -18,74 +25,168 @@ public class Client implements AutoCloseable {
     // Client ID Generator
     private static Integer nextClientId = 0;
 
-    // Client status
-    private Game game;
-    private Socket socket;
+    // How long a closing client may take to write what it still has queued
+    private static final Integer CLOSE_TIMEOUT_MILLIS = 1000;
+    private static final Integer MAX_PENDING_MOVES = 256;
+
+    // Client status. The game is also read by the writer, and cleared when the client closes
+    private volatile Game game;
     private Integer id;
-    private ClientType type;
+    private ClientType type = null;
     private Key lastKey = null;
 
+    // Moves received since the input was last drained, applied together
+    private List<Move> pendingMoves = new ArrayList<>();
+
     // I/O resources for this client
-    private Thread runnerThread;
-    private BufferedReader requestReader;
-    private PrintWriter commandSender;
+    private Transport transport;
+    private Codec codec = Codec.JSON;
+
+    // Reused to encode what is sent only to this client
+    private final ByteArrayOutputStream outputBuffer = new ByteArrayOutputStream();
+
+    // Outbound data, written by a task of its own so that a slow client never blocks whoever sends to it.
+    // The queue also works as the lock for the fields that follow
+    private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+    private final Integer outboundLimit;
+    private final SlowClientPolicy slowClientPolicy;
+    private Integer outboundBytes = 0;
+    private Boolean writing = false;
+    private Boolean closing = false;
+    private Boolean awaitingKeyframe = false;
+    private Boolean keyframeRequested = false;
 
     /**
-     * Starts a new instance of the class to manage a connection to a client
+     * Starts a new instance of the class to manage a connection to a client, reading it from a dedicated thread
+     * (platform or virtual, as configured)
      * @param socket client connection information
      * @throws IOException error that can occur if there are problems reading the socket stream
      */
     public Client(Socket socket) throws IOException {
-        this.socket = socket;
-        this.id = nextClientId++;
+        this(new SocketTransport(socket));
 
-        this.requestReader = new BufferedReader(new InputStreamReader(this.socket.getInputStream()));
-        this.commandSender = new PrintWriter(this.socket.getOutputStream(), true);
+        SocketTransport socketTransport = (SocketTransport)this.transport;
+        TaskExecutor.getInstance().execute(() -> this.run(socketTransport));
+    }
+
+    /**
+     * Starts a new instance of the class to manage a connection whose input is pushed by an event loop
+     * @param transport client connection
+     */
+    Client(Transport transport) {
+        this.id = nextClientId++;
+        this.transport = transport;
 
-        this.runnerThread = new Thread(this::run);
-        this.runnerThread.start();
+        Options options = Server.getInstance().getOptions();
+        this.outboundLimit = options.getOutboundLimit() * 1024;
+        this.slowClientPolicy = options.getSlowClients();
     }
 
     /**
      * Client thread startup routine
+     * @param socketTransport blocking transport read by this thread
      */
-    private void run() {
+    private void run(SocketTransport socketTransport) {
         // `try (this)` closes resources automatically on exit with or without exception
         try (this) {
             try {
-                // First a `handshake` is performed as defined by the protocol
-                if (this.doHandshake()) {
-                    while (this.processNext()) {
-                        continue;
+                this.onConnect();
+
+                String line;
+                while ((line = socketTransport.readLine()) != null && this.onLine(line)) {
+                    if (!socketTransport.hasBufferedInput()) {
+                        this.onInputDrained();
                     }
                 }
             } catch (Exception exception) {
-                exception.printStackTrace();
+                Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Client " + this + " error", exception);
                 this.sendError(exception);
             }
         } catch (Exception nested) {
-            nested.printStackTrace();
+            Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Client " + this + " error", nested);
         }
     }
 
     /**
-     * Processes the handshake message sent by the client
-     * @return status of handshake processing with client
-     * @throws IOException error that can occur if there are problems reading the socket stream
+     * Starts the protocol once the connection is ready
      */
-    private Boolean doHandshake() throws IOException {
+    void onConnect() {
         List<Integer> gameIds = Server.getInstance().getGameIds();
 
         // First message
-        this.sendSingle(Command.cmdStart(this.id, gameIds));
+        Authority authority = Server.getInstance().getOptions().getAuthority();
+        this.sendSingle(Command.cmdStart(this.id, gameIds, Codec.names(), authority.getName()));
+    }
+
+    /**
+     * Handles a line received from the client, which is either the handshake response or a request
+     * @param line line received from the client
+     * @return false once the connection must end, true otherwise
+     * @throws IOException error that can occur if there are problems reading the socket stream
+     */
+    Boolean onLine(String line) throws IOException {
+        Command command = new Command(line);
+
+        // First a `handshake` is performed as defined by the protocol
+        if (this.type == null) {
+            return this.doHandshake(command);
+        }
+
+        return this.processNext(command);
+    }
+
+    /**
+     * Called once every line that was available has been handled, before waiting for more input
+     */
+    void onInputDrained() {
+        if (!this.pendingMoves.isEmpty()) {
+            // The game applies them later on its own loop, so they are handed over
+            this.game.onMoves(this.pendingMoves);
+            this.pendingMoves = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Ends the connection after an unexpected failure
+     * @param exception failure found
+     */
+    void abort(Exception exception) {
+        this.sendError(exception);
+
+        try {
+            this.close();
+        } catch (Exception nested) {
+            Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Client " + this + " error", nested);
+        }
+    }
+
+    /**
+     * Processes the handshake message sent by the client
+     * @param reply response of the client to the start command
+     * @return status of handshake processing with client
+     * @throws IOException error that can occur if there are problems reading the socket stream
+     */
+    private Boolean doHandshake(Command reply) throws IOException {
         // Response to init
-        Integer gameId = this.receive().expectInt("init");
+        Integer gameId = reply.expectInt("init");
         if (gameId == null) {
             return false;
         }
 
+        // Clients that predate codec negotiation omit the choice and keep using JSON
+        String codecName = reply.expectString("codec");
+        if (codecName != null) {
+            Codec chosen = Codec.byName(codecName);
+            if (chosen == null) {
+                this.sendError("unknown codec: " + codecName);
+                return false;
+            }
+
+            this.codec = chosen;
+        }
+
         // Subscribe a player based on the id provided by init
-        if (gameId == this.id) {
+        if (gameId.equals(this.id)) {
             this.type = ClientType.PLAYER;
             this.game = Server.getInstance().initPlayer(this);
         } else {
@@ -102,28 +203,26 @@ public class Client implements AutoCloseable {
         return this.game != null;
     }
 
-    /**
-     * Read a command from the socket stream
-     * @return command built from socket stream
-     * @throws IOException error that can occur if there are problems reading the socket stream
-     */
-    private Command receive() throws IOException {
-        return new Command(this.requestReader.readLine());
-    }
-
     /**
      * Processes the next pending command obtained from the client (handling user input)
+     * @param request command received from the client
      * @return boolean that indicates the state in which the processing ends
      * @throws IOException error that can occur if there are problems reading the socket stream
      */
-    private Boolean processNext() throws IOException {
-        // Start client loop
-        Command request = this.receive();
-
+    private Boolean processNext(Command request) throws IOException {
         // Manage quit commands for both client types
         String operation = request.expectString("op");
+
+        // Moves are held until the input is drained, anything else must see the moves that preceded it
+        if (!operation.equals("move")) {
+            this.onInputDrained();
+        }
+
         if (operation.equals("bye")) {
             return false;
+        } else if (operation.equals("resync")) {
+            this.game.resync(this);
+            return true;
         } else if (type == ClientType.SPECTATOR) {
             return true;
         }
@@ -142,7 +241,12 @@ public class Client implements AutoCloseable {
             }
             case "move" -> {
                 Position position = new Position(request.expectInt("x"), request.expectInt("y"));
-                this.game.onMove(request.expectInt("id"), position);
+                this.pendingMoves.add(new Move(request.expectInt("id"), position));
+
+                // A client that never lets the input drain still has its moves applied
+                if (this.pendingMoves.size() >= MAX_PENDING_MOVES) {
+                    this.onInputDrained();
+                }
             }
             default -> {
                 this.sendError("invalid operation: " + operation);
@@ -158,11 +262,10 @@ public class Client implements AutoCloseable {
      * @param command command to send to client
      */
     public void sendSingle(Command command) {
-        try {
-            this.commandSender.println(command);
-            this.commandSender.flush();
-        } catch (Exception exception) {
-            this.sendError(exception);
+        synchronized (this.outputBuffer) {
+            this.outputBuffer.reset();
+            this.codec.encode(command, this.outputBuffer);
+            this.enqueue(ByteBuffer.wrap(this.outputBuffer.toByteArray()), false);
         }
     }
 
@@ -171,12 +274,166 @@ public class Client implements AutoCloseable {
      * @param batch collection of commands to be sent to the client
      */
     public void sendBatch(CommandBatch batch) {
-        try {
-            this.commandSender.print(batch);
-            this.commandSender.flush();
-        } catch (Exception exception) {
-            this.sendError(exception);
+        synchronized (this.outputBuffer) {
+            this.outputBuffer.reset();
+            this.codec.encode(batch, this.outputBuffer);
+            this.enqueue(ByteBuffer.wrap(this.outputBuffer.toByteArray()), false);
+        }
+    }
+
+    /**
+     * Send the complete state of the game, after which the client gets updates again if it had fallen behind
+     * @param keyframe commands that describe every entity of the game
+     */
+    public void sendKeyframe(CommandBatch keyframe) {
+        synchronized (this.outbound) {
+            this.awaitingKeyframe = false;
+            this.keyframeRequested = false;
         }
+
+        this.sendBatch(keyframe);
+    }
+
+    /**
+     * Send game updates that are already encoded in the codec of this client
+     * @param data encoded commands, which must not be modified afterwards
+     */
+    public void sendEncoded(ByteBuffer data) {
+        this.enqueue(data, true);
+    }
+
+    /**
+     * Adds data to the outbound queue, applying the slow client policy if the queue is full. A single batch
+     * is always accepted when nothing is pending, however large it is
+     * @param data encoded commands
+     * @param isUpdate whether the data are updates relative to what the client already knows
+     */
+    private void enqueue(ByteBuffer data, Boolean isUpdate) {
+        synchronized (this.outbound) {
+            if (this.closing) {
+                return;
+            } else if (isUpdate && this.awaitingKeyframe) {
+                // Updates are useless until the client has a full state again
+                this.requestKeyframe();
+                return;
+            }
+
+            Integer pending = this.outboundBytes + this.transport.getBacklog();
+            if (pending > 0 && pending + data.remaining() > this.outboundLimit) {
+                this.onOverflow();
+                return;
+            }
+
+            this.outbound.add(data);
+            this.outboundBytes += data.remaining();
+
+            if (!this.writing) {
+                this.writing = true;
+                TaskExecutor.getInstance().execute(this::drainOutbound);
+            }
+        }
+    }
+
+    /**
+     * Writes queued data until the queue is empty. Runs as a task of its own, so it may block
+     */
+    private void drainOutbound() {
+        while (true) {
+            ByteBuffer next;
+            synchronized (this.outbound) {
+                next = this.outbound.poll();
+                if (next == null) {
+                    this.writing = false;
+                    if (this.closing) {
+                        this.closeTransport();
+                    } else if (this.awaitingKeyframe) {
+                        this.requestKeyframe();
+                    }
+
+                    return;
+                }
+
+                this.outboundBytes -= next.remaining();
+            }
+
+            try {
+                this.transport.send(next);
+            } catch (IOException exception) {
+                // The connection is broken, nothing else can be sent
+                synchronized (this.outbound) {
+                    this.outbound.clear();
+                    this.outboundBytes = 0;
+                    this.writing = false;
+                }
+
+                this.closeQuietly();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Called by transports that write in the background once they have nothing left to write
+     */
+    void onDrained() {
+        synchronized (this.outbound) {
+            if (this.awaitingKeyframe) {
+                this.requestKeyframe();
+            }
+        }
+    }
+
+    /**
+     * Applies the slow client policy. Called with the outbound queue locked
+     */
+    private void onOverflow() {
+        this.outbound.clear();
+        this.outboundBytes = 0;
+
+        switch (this.slowClientPolicy) {
+            case DISCONNECT -> {
+                Log.getInstance().warn(LogCategory.CLIENT, "[SERVER] Client " + this + " is not keeping up, disconnecting");
+                this.closing = true;
+
+                // Closing the transport first also interrupts a write that is blocked on the socket
+                TaskExecutor.getInstance().execute(() -> {
+                    this.closeTransport();
+                    this.closeQuietly();
+                });
+            }
+            case RESYNC -> {
+                if (!this.awaitingKeyframe) {
+                    Log.getInstance().warn(LogCategory.CLIENT, "[SERVER] Client " + this + " is not keeping up, dropping updates until it catches up");
+                }
+
+                this.awaitingKeyframe = true;
+                this.requestKeyframe();
+            }
+        }
+    }
+
+    /**
+     * Asks the game for a full snapshot once the client has written everything it had pending. Called with the
+     * outbound queue locked
+     */
+    private void requestKeyframe() {
+        // Read once, since the client may be closed meanwhile
+        Game game = this.game;
+        if (this.keyframeRequested || this.writing || this.transport.getBacklog() > 0 || game == null) {
+            return;
+        }
+
+        // Built later on the game loop, since the game may be in the middle of sending to its clients
+        this.keyframeRequested = true;
+        game.resync(this);
+    }
+
+    /**
+     * Gets the wire encoding chosen by the client
+     * @return codec in use
+     */
+    public Codec getCodec() {
+        return this.codec;
     }
 
     /**
@@ -184,21 +441,27 @@ public class Client implements AutoCloseable {
      * @param message description of the error found
      */
     public void sendError(String message) {
+        // Errors found while reporting an error end here
+        synchronized (this.outbound) {
+            if (this.closing || this.transport.isClosed()) {
+                return;
+            }
+        }
+
         try {
             this.sendSingle(Command.cmdError(message));
             this.close();
         } catch (Exception exception) {
-            exception.printStackTrace();
-            this.socket = null;
+            Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Client " + this + " error", exception);
         }
     }
 
     /**
-     * Send an exception found to stderr
-     * @param exception exception to send to stdout error
+     * Logs an exception and sends it to the client
+     * @param exception exception to report
      */
     public void sendError(Exception exception) {
-        exception.printStackTrace();
+        Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Client " + this + " error", exception);
         this.sendError(exception.toString());
     }
 
@@ -216,30 +479,60 @@ public class Client implements AutoCloseable {
     @Override
     public String toString() {
         String string = "#" + this.id;
-        if (this.socket != null) {
-            string += " (" + this.socket.getRemoteSocketAddress() + ")";
+        if (!this.transport.isClosed()) {
+            string += " (" + this.transport.getRemoteAddress() + ")";
         }
         return string;
     }
 
     /**
-     * Closes and ends resources, terminating the connection
+     * Closes and ends resources, terminating the connection once what is queued has been written
      * @throws Exception
      */
     @Override
     public void close() throws Exception {
-        if (this.game == null) {
-            System.out.println("[SERVER] Connection finalized with detached client " + this);
+        if (this.game == null && !this.transport.isClosed()) {
+            Log.getInstance().info(LogCategory.CLIENT, "[SERVER] Connection finalized with detached client " + this);
         }
 
-        if (this.socket != null) {
-            this.socket.close();
-            this.socket = null;
+        synchronized (this.outbound) {
+            this.closing = true;
+            if (!this.writing) {
+                this.closeTransport();
+            } else {
+                // The writer closes the transport when it is done, unless the client does not read at all
+                TaskExecutor.getInstance().schedule(this::closeTransport, CLOSE_TIMEOUT_MILLIS);
+            }
         }
 
-        if (this.game != null) {
-            this.game.detachClient(this);
+        Game game = this.game;
+        if (game != null) {
             this.game = null;
+            game.detachClient(this);
+        }
+    }
+
+    /**
+     * Closes the client, reporting any failure instead of propagating it
+     */
+    private void closeQuietly() {
+        try {
+            this.close();
+        } catch (Exception exception) {
+            Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Client " + this + " error", exception);
+        }
+    }
+
+    /**
+     * Closes the connection right away
+     */
+    private void closeTransport() {
+        try {
+            if (!this.transport.isClosed()) {
+                this.transport.close();
+            }
+        } catch (IOException exception) {
+            Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Client " + this + " error", exception);
         }
     }
 }
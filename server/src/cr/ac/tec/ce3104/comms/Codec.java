@@ -0,0 +1,57 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+// A wire encoding for the commands sent from the server to the clients
+public interface Codec {
+    // Available codecs, the first one is the fallback used until a client chooses otherwise
+    Codec JSON = new JsonCodec();
+    Codec BINARY = new BinaryCodec();
+
+    /**
+     * Gets the name that identifies this codec during the handshake
+     * @return codec name
+     */
+    String getName();
+
+    /**
+     * Appends the encoded form of a command to an output buffer
+     * @param command command to encode
+     * @param output buffer to append to
+     */
+    void encode(Command command, ByteArrayOutputStream output);
+
+    /**
+     * Appends the encoded form of a whole batch of commands to an output buffer
+     * @param batch commands to encode
+     * @param output buffer to append to
+     */
+    default void encode(CommandBatch batch, ByteArrayOutputStream output) {
+        for (Command command : batch) {
+            this.encode(command, output);
+        }
+    }
+
+    /**
+     * Gets the names of every codec offered by the server
+     * @return codec names
+     */
+    static List<String> names() {
+        return List.of(JSON.getName(), BINARY.getName());
+    }
+
+    /**
+     * Finds a codec by the name a client chose
+     * @param name codec name
+     * @return respective codec, or null if there is none with that name
+     */
+    static Codec byName(String name) {
+        for (Codec codec : List.of(JSON, BINARY)) {
+            if (codec.getName().equals(name)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
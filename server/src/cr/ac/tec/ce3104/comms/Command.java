@@ -5,31 +5,60 @@ import cr.ac.tec.ce3104.physics.Size;
 import cr.ac.tec.ce3104.physics.Speed;
 import cr.ac.tec.ce3104.physics.Position;
 
-import cr.ac.tec.ce3104.resources.Sprite;
 import org.json.simple.JSONValue;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class Command {
-    // Internal JSON object
-    private JSONObject json;
+    // Kinds of field values
+    static final byte TYPE_INT = 0;
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_INT_ARRAY = 2;
+    static final byte TYPE_LIST = 3;
+
+    // Enough for a put, the largest command
+    private static final Integer INITIAL_CAPACITY = 10;
+
+    // Fields in insertion order. Integers are kept unboxed in `ints`, other values in `objects`
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] ints = new int[INITIAL_CAPACITY];
+    private Object[] objects = new Object[INITIAL_CAPACITY];
+    private int size = 0;
 
     /**
      * Initialize a new command with no content
      */
-    public Command() {
-        this.json = new JSONObject();
-    }
+    public Command() {}
 
     /**
      * Initialize a new command from a string that is formatted as a json object
      * @param source string containing json object to represent
+     * @throws IllegalArgumentException if the source is not a json object
      */
     public Command(String source) {
-        this.json = (JSONObject)JSONValue.parse(source);
+        if (!(JSONValue.parse(source) instanceof JSONObject json)) {
+            throw new IllegalArgumentException("malformed command: " + source);
+        }
+
+        for (Object entry : json.entrySet()) {
+            Map.Entry<?, ?> field = (Map.Entry<?, ?>)entry;
+            String key = (String)field.getKey();
+
+            if (field.getValue() instanceof Number number) {
+                this.putInt(key, number.intValue());
+            } else if (field.getValue() instanceof JSONArray array) {
+                this.putList(key, array);
+            } else if (field.getValue() != null) {
+                this.putString(key, field.getValue().toString());
+            }
+        }
     }
 
     /**
@@ -45,10 +74,15 @@ public class Command {
      * Create the initial communication command with a client
      * @param clientId id of the client to which the command is sent
      * @param gameIds ids of active games on the current server
+     * @param codecs names of the wire encodings the client may choose from in its reply
+     * @param authority name of the side that simulates the motion of entities
      * @return command built from the given information
      */
-    public static Command cmdStart(Integer clientId, List<Integer> gameIds) {
-        return new Command().putInt("whoami", clientId).putList("games", gameIds);
+    public static Command cmdStart(Integer clientId, List<Integer> gameIds, List<String> codecs, String authority) {
+        return new Command().putInt("whoami", clientId)
+                .putList("games", gameIds)
+                .putList("codecs", codecs)
+                .putString("authority", authority);
     }
 
     /**
@@ -83,11 +117,6 @@ public class Command {
      * @return command created from the given information
      */
     public static Command cmdPut(Integer id, Position position, Integer z, Speed speed, Sequence sequence) {
-        List<Integer> sequenceIds = new ArrayList<>();
-        for (Sprite sprite : sequence.getSprites()) {
-            sequenceIds.add(sprite.getId());
-        }
-
         return new Command().putString("op", "put")
                 .putInt("id", id)
                 .putInt("x", position.getX())
@@ -97,7 +126,15 @@ public class Command {
                 .putInt("num_y", speed.getY().getNumerator())
                 .putInt("denom_x", speed.getX().getDenominator())
                 .putInt("denom_y", speed.getY().getDenominator())
-                .putList("seq", sequenceIds);
+                .putInts("seq", sequence.getSpriteIds());
+    }
+
+    /**
+     * Create a command telling the client to forget every entity, since a full state follows
+     * @return command created to be sent to the client
+     */
+    public static Command cmdReset() {
+        return new Command().putString("op", "reset");
     }
 
     /**
@@ -111,67 +148,212 @@ public class Command {
     }
 
     /**
-     * Puts a key-value pair into the current JSON object. The value is an Integer
-     * @param key string key to add to json object
-     * @param value integer value to insert to json object
+     * Create a command indicating that some cells of an entity's mask were cleared
+     * @param id id of the entity whose mask changed
+     * @param cells indexes of the cleared cells
+     * @return command created to be sent to the client
+     */
+    public static Command cmdErase(Integer id, List<Integer> cells) {
+        return new Command().putString("op", "erase")
+                .putInt("id", id)
+                .putList("cells", cells);
+    }
+
+    /**
+     * Puts a key-value pair into the current command. The value is an Integer
+     * @param key string key to add to the command
+     * @param value integer value to insert
      * @return updated current command
      */
     public Command putInt(String key, Integer value) {
-        return this.put(key, value);
+        int index = this.add(key, TYPE_INT);
+        this.ints[index] = value;
+        return this;
     }
 
     /**
-     * Puts a key-value pair into the current JSON object. The value is a string
+     * Puts a key-value pair into the current command. The value is a string
      * @param key key of the string value to insert
-     * @param value string value to insert to json object
+     * @param value string value to insert
      * @return updated current command
      */
     public Command putString(String key, String value) {
-        return this.put(key, value);
+        int index = this.add(key, TYPE_STRING);
+        this.objects[index] = value;
+        return this;
+    }
+
+    /**
+     * Create a field that stores a key-list in the current command
+     * @param key key to identify list
+     * @param list list of numbers or strings, which must not be modified afterwards
+     * @return updated current command
+     */
+    public Command putList(String key, List<?> list) {
+        int index = this.add(key, TYPE_LIST);
+        this.objects[index] = list;
+        return this;
     }
 
     /**
-     * Create a field that stores a key-list in the json object of the current command
+     * Create a field that stores a list of integers without boxing them
      * @param key key to identify list
-     * @param list list to be inserted as JSON array
+     * @param values integers of the list, which must not be modified afterwards
      * @return updated current command
      */
-    @SuppressWarnings("unchecked")
-    public Command putList(String key, List<Integer> list) {
-        JSONArray array = new JSONArray();
-        array.addAll(list);
-        return this.put(key, array);
+    public Command putInts(String key, int[] values) {
+        int index = this.add(key, TYPE_INT_ARRAY);
+        this.objects[index] = values;
+        return this;
     }
 
     /**
-     * Add a key-value pair to the json object of the command
-     * @param key value key to insert
-     * @param value value to insert
+     * Copies a field of another command into this one
+     * @param source command that has the field
+     * @param index position of the field in the source command
      * @return updated current command
      */
-    @SuppressWarnings("unchecked")
-    private Command put(String key, Object value) {
-        this.json.put(key, value);
+    Command copyField(Command source, int index) {
+        int target = this.add(source.keys[index], source.types[index]);
+        this.ints[target] = source.ints[index];
+        this.objects[target] = source.objects[index];
         return this;
     }
 
     /**
-     * Extract an integer value from a json object
+     * Appends a field, or reuses the one that already has the same key
+     * @param key key of the field
+     * @param type kind of value
+     * @return position of the field
+     */
+    private int add(String key, byte type) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            if (this.size == this.keys.length) {
+                int capacity = this.size * 2;
+                this.keys = Arrays.copyOf(this.keys, capacity);
+                this.types = Arrays.copyOf(this.types, capacity);
+                this.ints = Arrays.copyOf(this.ints, capacity);
+                this.objects = Arrays.copyOf(this.objects, capacity);
+            }
+
+            index = this.size++;
+            this.keys[index] = key;
+        }
+
+        this.types[index] = type;
+        this.objects[index] = null;
+        return index;
+    }
+
+    /**
+     * Extract an integer value from the command
      * @param key key that identifies the field that contains the integer to extract
-     * @return extracted integer
+     * @return extracted integer, or null if there is no such field
      */
     public Integer expectInt(String key) {
-        Long value = (Long)this.json.get(key);
-        return value != null ? value.intValue() : null;
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return null;
+        } else if (this.types[index] != TYPE_INT) {
+            throw new IllegalArgumentException("expected an integer for key " + key);
+        }
+
+        return this.ints[index];
     }
 
     /**
-     * Extract a string value from a json object
+     * Extract a string value from the command
      * @param key key that identifies the field that contains the string to extract
-     * @return extracted string
+     * @return extracted string, or null if there is no such field
      */
     public String expectString(String key) {
-        return (String)this.json.get(key);
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return null;
+        } else if (this.types[index] != TYPE_STRING) {
+            throw new IllegalArgumentException("expected a string for key " + key);
+        }
+
+        return (String)this.objects[index];
+    }
+
+    /**
+     * Finds a field by its key
+     * @param key key of the field
+     * @return position of the field, or -1 if there is none
+     */
+    int indexOf(String key) {
+        for (int i = 0; i < this.size; ++i) {
+            if (this.keys[i].equals(key)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets how many fields the command has
+     * @return number of fields
+     */
+    int getFieldCount() {
+        return this.size;
+    }
+
+    /**
+     * Gets the key of a field
+     * @param index position of the field
+     * @return field key
+     */
+    String getKey(int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * Gets the kind of value of a field
+     * @param index position of the field
+     * @return one of the `TYPE_*` constants
+     */
+    byte getType(int index) {
+        return this.types[index];
+    }
+
+    /**
+     * Gets the value of an integer field
+     * @param index position of the field
+     * @return field value
+     */
+    int getInt(int index) {
+        return this.ints[index];
+    }
+
+    /**
+     * Gets the value of a field that is not an integer
+     * @param index position of the field
+     * @return a string, an int array or a list, according to the field type
+     */
+    Object getObject(int index) {
+        return this.objects[index];
+    }
+
+    /**
+     * Compares a field of this command with a field of another one
+     * @param index position of the field in this command
+     * @param other other command
+     * @param otherIndex position of the field in the other command
+     * @return true if both fields hold the same value, false otherwise
+     */
+    Boolean sameValue(int index, Command other, int otherIndex) {
+        if (this.types[index] != other.types[otherIndex]) {
+            return false;
+        }
+
+        return switch (this.types[index]) {
+            case TYPE_INT -> this.ints[index] == other.ints[otherIndex];
+            case TYPE_INT_ARRAY -> Arrays.equals((int[])this.objects[index], (int[])other.objects[otherIndex]);
+            default -> this.objects[index].equals(other.objects[otherIndex]);
+        };
     }
 
     /**
@@ -179,6 +361,8 @@ public class Command {
      */
     @Override
     public String toString() {
-        return this.json.toJSONString();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Codec.JSON.encode(this, output);
+        return new String(output.toByteArray(), 0, output.size() - 1, StandardCharsets.UTF_8);
     }
 }
@@ -1,22 +1,22 @@
 package cr.ac.tec.ce3104.comms;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 
-public class CommandBatch {
+public class CommandBatch implements Iterable<Command> {
     // Command list
     private List<Command> batch = new ArrayList<>();
 
-    // Cached text representation
-    private String memoizedString = null;
-
     /**
      * Add a command to the batch collection
      * @param command command to add to batch
      */
     public void add(Command command) {
         this.batch.add(command);
-        this.memoizedString = null;
     }
 
     /**
@@ -24,7 +24,70 @@ public class CommandBatch {
      */
     public void clear() {
         this.batch.clear();
-        this.memoizedString = null;
+    }
+
+    /**
+     * Indicates whether the batch has no commands
+     * @return true if there is nothing to send, false otherwise
+     */
+    public Boolean isEmpty() {
+        return this.batch.isEmpty();
+    }
+
+    /**
+     * Builds an equivalent batch without redundant commands. Every put of an entity is replaced by its latest
+     * state, at the place of the first one so that commands that refer to the entity still find it. Puts that
+     * precede a delete of the same entity are dropped, as are all but the latest stats
+     * @return coalesced batch
+     */
+    public CommandBatch coalesce() {
+        List<Command> result = new ArrayList<>();
+        HashMap<Integer, Integer> putSlots = new HashMap<>();
+        Integer statsSlot = null;
+
+        for (Command command : this.batch) {
+            String operation = command.expectString("op");
+            if ("put".equals(operation)) {
+                Integer slot = putSlots.get(command.expectInt("id"));
+                if (slot != null) {
+                    result.set(slot, command);
+                    continue;
+                }
+
+                putSlots.put(command.expectInt("id"), result.size());
+            } else if ("delete".equals(operation)) {
+                Integer slot = putSlots.remove(command.expectInt("id"));
+                if (slot != null) {
+                    result.set(slot, null);
+                }
+            } else if ("stats".equals(operation)) {
+                if (statsSlot != null) {
+                    result.set(statsSlot, command);
+                    continue;
+                }
+
+                statsSlot = result.size();
+            }
+
+            result.add(command);
+        }
+
+        CommandBatch coalesced = new CommandBatch();
+        for (Command command : result) {
+            if (command != null) {
+                coalesced.add(command);
+            }
+        }
+
+        return coalesced;
+    }
+
+    /**
+     * Iterates over the commands in the order they were added
+     */
+    @Override
+    public Iterator<Command> iterator() {
+        return this.batch.iterator();
     }
 
     /**
@@ -32,12 +95,8 @@ public class CommandBatch {
      */
     @Override
     public String toString() {
-        if (this.memoizedString == null) {
-            this.memoizedString = "";
-            for (Command command : this.batch) {
-                this.memoizedString += command.toString() + "\n";
-            }
-        }
-        return this.memoizedString;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Codec.JSON.encode(this, output);
+        return output.toString(StandardCharsets.UTF_8);
     }
 }
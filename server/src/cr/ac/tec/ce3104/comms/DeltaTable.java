@@ -0,0 +1,72 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.util.HashMap;
+
+// Last entity state sent to the clients of a game, used to send only the fields that changed since then
+public class DeltaTable {
+    // Latest full put known by the client for each entity id
+    private HashMap<Integer, Command> sent = new HashMap<>();
+
+    /**
+     * Reduces a command to what the client does not know yet, recording what it will know once it is sent.
+     * Commands other than `put` and `delete` are not affected
+     * @param command command that describes the full state of an entity
+     * @return command to send, or null if the client already has exactly that state
+     */
+    public Command reduce(Command command) {
+        String operation = command.expectString("op");
+        if ("delete".equals(operation)) {
+            this.sent.remove(command.expectInt("id"));
+            return command;
+        } else if (!"put".equals(operation)) {
+            return command;
+        }
+
+        Integer id = command.expectInt("id");
+        Command known = this.sent.put(id, command);
+        if (known == null) {
+            // First time this client sees the entity, everything is sent
+            return command;
+        }
+
+        // Clients simulate entities with speed on their own, so the position they have may no longer be the
+        // last one that was sent to them. In that case the position is always sent to correct them
+        Boolean stationary = known.expectInt("denom_x") == 0 && known.expectInt("denom_y") == 0;
+
+        Command delta = new Command().putString("op", "put").putInt("id", id);
+        Boolean changed = false;
+
+        for (int i = 0; i < command.getFieldCount(); ++i) {
+            String key = command.getKey(i);
+            if (key.equals("op") || key.equals("id")) {
+                continue;
+            }
+
+            Boolean isPosition = key.equals("x") || key.equals("y");
+            int knownIndex = known.indexOf(key);
+            if ((isPosition && !stationary) || knownIndex < 0 || !command.sameValue(i, known, knownIndex)) {
+                delta.copyField(command, i);
+                changed = true;
+            }
+        }
+
+        return changed ? delta : null;
+    }
+
+    /**
+     * Reduces every command of a batch
+     * @param batch commands that describe the full state of entities
+     * @return commands to send, without those that carry nothing new
+     */
+    public CommandBatch reduce(CommandBatch batch) {
+        CommandBatch reduced = new CommandBatch();
+        for (Command command : batch) {
+            Command delta = this.reduce(command);
+            if (delta != null) {
+                reduced.add(delta);
+            }
+        }
+
+        return reduced;
+    }
+}
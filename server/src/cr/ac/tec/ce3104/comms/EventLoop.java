@@ -0,0 +1,120 @@
+package cr.ac.tec.ce3104.comms;
+
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// A selector thread that owns many client connections at once
+public class EventLoop {
+    private final Selector selector;
+    private final Thread thread;
+
+    // Work submitted by other threads, run between selections
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    // Statistics
+    private Integer connections = 0;
+
+    /**
+     * Opens the selector of a new event loop. The loop does not run until `start()` is called
+     * @param index loop index, used to name its thread
+     * @throws IOException error that can occur while opening the selector
+     */
+    public EventLoop(Integer index) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, "event-loop-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the loop thread
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Hands a connection over to this loop, which will start the client's handshake
+     * @param transport transport of the connection
+     */
+    public void register(ChannelTransport transport) {
+        this.execute(() -> {
+            try {
+                SelectionKey key = transport.getChannel().register(this.selector, SelectionKey.OP_READ, transport);
+                ++this.connections;
+                transport.onRegistered(key);
+            } catch (ClosedChannelException exception) {
+                // The client left before being registered
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the loop thread
+     * @param task task to run
+     */
+    public void execute(Runnable task) {
+        this.tasks.add(task);
+        this.wakeup();
+    }
+
+    /**
+     * Interrupts the current selection so that pending tasks and cancelled keys are processed
+     */
+    public void wakeup() {
+        if (Thread.currentThread() != this.thread) {
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * Gets the number of connections currently owned by this loop
+     * @return number of connections
+     */
+    public Integer getConnections() {
+        return this.connections;
+    }
+
+    /**
+     * Loop thread startup routine
+     */
+    private void run() {
+        while (true) {
+            try {
+                this.selector.select();
+
+                Runnable task;
+                while ((task = this.tasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> selected = this.selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+
+                    ChannelTransport transport = (ChannelTransport)key.attachment();
+                    if (key.isValid() && key.isReadable()) {
+                        transport.onReadable();
+                    }
+
+                    if (key.isValid() && key.isWritable()) {
+                        transport.onWritable();
+                    }
+                }
+
+                this.connections = this.selector.keys().size();
+            } catch (Exception exception) {
+                // A single misbehaving connection must not bring down the others
+                Log.getInstance().error(LogCategory.CLIENT, "[SERVER] Event loop error", exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+// Fixed pool of event loops among which new connections are distributed
+public class EventLoopGroup {
+    private final EventLoop[] loops;
+    private Integer nextLoop = 0;
+
+    /**
+     * Creates and starts a fixed number of event loops
+     * @param size number of event loops
+     * @throws IOException error that can occur while opening the selectors
+     */
+    public EventLoopGroup(Integer size) throws IOException {
+        this.loops = new EventLoop[size];
+        for (Integer i = 0; i < size; ++i) {
+            this.loops[i] = new EventLoop(i);
+            this.loops[i].start();
+        }
+    }
+
+    /**
+     * Takes ownership of a freshly accepted connection, assigning it to an event loop in round-robin order
+     * @param channel accepted connection
+     * @return client that manages the connection
+     * @throws IOException error that can occur while configuring the channel
+     */
+    public Client adopt(SocketChannel channel) throws IOException {
+        EventLoop loop = this.loops[this.nextLoop];
+        this.nextLoop = (this.nextLoop + 1) % this.loops.length;
+
+        ChannelTransport transport = new ChannelTransport(channel, loop);
+        Client client = new Client(transport);
+        transport.attach(client);
+
+        loop.register(transport);
+        return client;
+    }
+
+    /**
+     * Gets the event loops of this group
+     * @return event loops
+     */
+    public EventLoop[] getLoops() {
+        return this.loops;
+    }
+}
@@ -0,0 +1,126 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Newline-delimited JSON objects, the original protocol. Commands are written straight into the output buffer
+public class JsonCodec implements Codec {
+    // `"key":` fragments already encoded, shared by every command with that key
+    private static final ConcurrentHashMap<String, byte[]> KEY_FRAGMENTS = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public void encode(Command command, ByteArrayOutputStream output) {
+        output.write('{');
+        for (int i = 0; i < command.getFieldCount(); ++i) {
+            if (i > 0) {
+                output.write(',');
+            }
+
+            output.writeBytes(KEY_FRAGMENTS.computeIfAbsent(command.getKey(i), JsonCodec::encodeKey));
+            switch (command.getType(i)) {
+                case Command.TYPE_INT -> JsonCodec.writeInt(command.getInt(i), output);
+                case Command.TYPE_STRING -> JsonCodec.writeString((String)command.getObject(i), output);
+                case Command.TYPE_INT_ARRAY -> {
+                    int[] values = (int[])command.getObject(i);
+
+                    output.write('[');
+                    for (int j = 0; j < values.length; ++j) {
+                        if (j > 0) {
+                            output.write(',');
+                        }
+                        JsonCodec.writeInt(values[j], output);
+                    }
+                    output.write(']');
+                }
+                case Command.TYPE_LIST -> {
+                    List<?> list = (List<?>)command.getObject(i);
+
+                    output.write('[');
+                    for (int j = 0; j < list.size(); ++j) {
+                        if (j > 0) {
+                            output.write(',');
+                        }
+
+                        if (list.get(j) instanceof Number number) {
+                            JsonCodec.writeInt(number.intValue(), output);
+                        } else {
+                            JsonCodec.writeString(String.valueOf(list.get(j)), output);
+                        }
+                    }
+                    output.write(']');
+                }
+            }
+        }
+
+        output.write('}');
+        output.write('\n');
+    }
+
+    /**
+     * Encodes the fragment that introduces a field
+     * @param key field key
+     * @return `"key":` as UTF-8 bytes
+     */
+    private static byte[] encodeKey(String key) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonCodec.writeString(key, output);
+        output.write(':');
+        return output.toByteArray();
+    }
+
+    /**
+     * Appends the decimal representation of an integer, without going through a string
+     * @param value integer to write
+     * @param output buffer to append to
+     */
+    private static void writeInt(int value, ByteArrayOutputStream output) {
+        // A long avoids overflow when negating the smallest integer
+        long remaining = value;
+        if (remaining < 0) {
+            output.write('-');
+            remaining = -remaining;
+        }
+
+        long divisor = 1;
+        while (divisor * 10 <= remaining) {
+            divisor *= 10;
+        }
+
+        for (; divisor > 0; divisor /= 10) {
+            output.write((int)('0' + remaining / divisor % 10));
+        }
+    }
+
+    /**
+     * Appends a quoted and escaped JSON string
+     * @param string string to write
+     * @param output buffer to append to
+     */
+    private static void writeString(String string, ByteArrayOutputStream output) {
+        output.write('"');
+        for (int i = 0; i < string.length(); ++i) {
+            char character = string.charAt(i);
+            if (character == '"' || character == '\\') {
+                output.write('\\');
+                output.write(character);
+            } else if (character < 0x20) {
+                output.writeBytes(String.format("\\u%04x", (int)character).getBytes(StandardCharsets.US_ASCII));
+            } else if (character < 0x80) {
+                output.write(character);
+            } else {
+                // Non-ASCII characters are rare (error messages), so they take the slow path
+                int end = Character.isHighSurrogate(character) && i + 1 < string.length() ? i + 2 : i + 1;
+                output.writeBytes(string.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                i = end - 1;
+            }
+        }
+        output.write('"');
+    }
+}
@@ -0,0 +1,23 @@
+package cr.ac.tec.ce3104.comms;
+
+// What to do with a client whose outbound queue is full because it does not read fast enough
+public enum SlowClientPolicy {
+    // The connection is closed
+    DISCONNECT,
+    // Queued updates are dropped and the client receives a full snapshot once it catches up
+    RESYNC;
+
+    /**
+     * Parses a slow client policy from its textualization
+     * @param source representative text
+     * @return respective policy
+     * @throws IllegalArgumentException if the text names no policy
+     */
+    public static SlowClientPolicy parse(String source) {
+        return switch (source) {
+            case "disconnect" -> SlowClientPolicy.DISCONNECT;
+            case "resync" -> SlowClientPolicy.RESYNC;
+            default -> throw new IllegalArgumentException("unknown slow client policy: " + source);
+        };
+    }
+}
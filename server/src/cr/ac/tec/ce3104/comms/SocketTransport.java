@@ -0,0 +1,87 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+// Blocking transport over a plain socket, read by a thread dedicated to the client
+public class SocketTransport implements Transport {
+    private final Socket socket;
+    private final SocketAddress remoteAddress;
+    private final BufferedReader requestReader;
+    private final OutputStream commandSender;
+
+    /**
+     * Wraps a connected socket
+     * @param socket client connection information
+     * @throws IOException error that can occur if there are problems opening the socket streams
+     */
+    public SocketTransport(Socket socket) throws IOException {
+        this.socket = socket;
+        this.remoteAddress = socket.getRemoteSocketAddress();
+        this.requestReader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        this.commandSender = socket.getOutputStream();
+    }
+
+    /**
+     * Blocks until the client sends a full line
+     * @return line read, or null at the end of the stream
+     * @throws IOException error that can occur if there are problems reading the socket stream
+     */
+    public String readLine() throws IOException {
+        return this.requestReader.readLine();
+    }
+
+    /**
+     * Indicates whether more input can be read without blocking
+     * @return true if there is buffered input, false otherwise
+     * @throws IOException error that can occur if there are problems reading the socket stream
+     */
+    public Boolean hasBufferedInput() throws IOException {
+        return this.requestReader.ready();
+    }
+
+    @Override
+    public synchronized void send(ByteBuffer data) throws IOException {
+        try {
+            if (data.hasArray()) {
+                this.commandSender.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            } else {
+                byte[] copy = new byte[data.remaining()];
+                data.duplicate().get(copy);
+                this.commandSender.write(copy);
+            }
+
+            this.commandSender.flush();
+        } catch (IOException exception) {
+            // A broken connection is not written to again
+            this.close();
+            throw exception;
+        }
+    }
+
+    @Override
+    public Integer getBacklog() {
+        // Writes block until the socket takes all of the data
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.socket.close();
+    }
+
+    @Override
+    public Boolean isClosed() {
+        return this.socket.isClosed();
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return this.remoteAddress;
+    }
+}
@@ -0,0 +1,39 @@
+package cr.ac.tec.ce3104.comms;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+// Byte-level connection to a client, independent of how the socket is driven
+public interface Transport {
+    /**
+     * Queues or writes already encoded data to the client. The buffer must not be modified afterwards
+     * @param data encoded data to send
+     * @throws IOException error that can occur if the connection is broken
+     */
+    void send(ByteBuffer data) throws IOException;
+
+    /**
+     * Gets how much data has been accepted by `send()` but not yet written to the socket
+     * @return number of pending bytes
+     */
+    Integer getBacklog();
+
+    /**
+     * Closes the connection. Closing twice has no effect
+     * @throws IOException error that can occur while releasing the socket
+     */
+    void close() throws IOException;
+
+    /**
+     * Indicates whether the connection has been closed
+     * @return true if the connection is closed, false otherwise
+     */
+    Boolean isClosed();
+
+    /**
+     * Gets the address of the remote end
+     * @return remote address, or null if it is unknown
+     */
+    SocketAddress getRemoteAddress();
+}
@@ -0,0 +1,23 @@
+package cr.ac.tec.ce3104.comms;
+
+// Connection engines available to the server
+public enum TransportType {
+    // One thread per client blocking on its socket
+    BLOCKING,
+    // A few selector threads multiplexing all the clients
+    NIO;
+
+    /**
+     * Parses a transport type from its textualization
+     * @param source representative text
+     * @return respective transport type
+     * @throws IllegalArgumentException if the text names no transport
+     */
+    public static TransportType parse(String source) {
+        return switch (source) {
+            case "blocking" -> TransportType.BLOCKING;
+            case "nio" -> TransportType.NIO;
+            default -> throw new IllegalArgumentException("unknown transport: " + source);
+        };
+    }
+}
@@ -1,22 +1,158 @@
 package cr.ac.tec.ce3104.gameobjects;
 
+import cr.ac.tec.ce3104.comms.Command;
+import cr.ac.tec.ce3104.physics.Bounds;
 import cr.ac.tec.ce3104.physics.Dynamics;
 import cr.ac.tec.ce3104.physics.Position;
+import cr.ac.tec.ce3104.physics.Size;
 import cr.ac.tec.ce3104.resources.Sprite;
+import cr.ac.tec.ce3104.resources.SpriteMask;
 
-// A bunker
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// A bunker, a whole shield whose shape is a mask of small cells that are eroded by every hit
 public class Bunker extends GameObject{
+    // Side of a mask cell, in pixels
+    private static final Integer CELL_SIZE = 2;
+    // How many cells around an impact are cleared in every direction
+    private static final Integer BLAST_RADIUS = 1;
+
+    // Shape of an intact shield, one string per row of cells
+    private static final String[] SHAPE = {
+        "...######...",
+        ".##########.",
+        ".##########.",
+        "############",
+        "############",
+        "############",
+        "####....####",
+        "####....####",
+        "####....####"
+    };
+
+    private static final Integer COLUMNS = SHAPE[0].length();
+    private static final Integer ROWS = SHAPE.length;
+
+    // Cells that are still standing, indexed by `row * COLUMNS + column`
+    private BitSet cells = new BitSet(COLUMNS * ROWS);
 
     /**
-     * Builder to create a bunker entity
-     * @param position in which you want to place the bunker on the game screen
+     * Builder to create an intact bunker entity
+     * @param position in which you want to place the top left corner of the bunker on the game screen
      */
     public Bunker(Position position) {
         super(Sprite.BUNKER, position);
+
+        for (int row = 0; row < ROWS; ++row) {
+            for (int column = 0; column < COLUMNS; ++column) {
+                this.cells.set(row * COLUMNS + column, SHAPE[row].charAt(column) == '#');
+            }
+        }
     }
 
     @Override
     public Dynamics getDynamics() {
         return Dynamics.RIGID;
     }
+
+    @Override
+    public Size getSize() {
+        return new Size(COLUMNS * CELL_SIZE, ROWS * CELL_SIZE);
+    }
+
+    // The cells are its own mask, the sprite does not describe them
+    @Override
+    public SpriteMask getMask() {
+        return null;
+    }
+
+    /**
+     * Makes the put command, which also carries the mask as
+     * `[columns, rows, cell size, bits 0-31, bits 32-63, ...]`
+     * @return command to send to different clients
+     */
+    @Override
+    public Command makePutCommand() {
+        int[] words = new int[(COLUMNS * ROWS + 31) / 32];
+        for (int cell = this.cells.nextSetBit(0); cell >= 0; cell = this.cells.nextSetBit(cell + 1)) {
+            words[cell / 32] |= 1 << (cell % 32);
+        }
+
+        int[] mask = new int[3 + words.length];
+        mask[0] = COLUMNS;
+        mask[1] = ROWS;
+        mask[2] = CELL_SIZE;
+        System.arraycopy(words, 0, mask, 3, words.length);
+
+        return super.makePutCommand().putInts("mask", mask);
+    }
+
+    @Override
+    public boolean overlaps(int x, int y, int width, int height) {
+        // Every shot that reaches the bunker tests it, so the cell range is not boxed as erode() does
+        int left = Math.max(0, Math.floorDiv(x - this.getX(), CELL_SIZE));
+        int top = Math.max(0, Math.floorDiv(y - this.getY(), CELL_SIZE));
+        int right = Math.min(COLUMNS - 1, Math.floorDiv(x + width - 1 - this.getX(), CELL_SIZE));
+        int bottom = Math.min(ROWS - 1, Math.floorDiv(y + height - 1 - this.getY(), CELL_SIZE));
+
+        for (int row = top; row <= bottom; ++row) {
+            for (int column = left; column <= right; ++column) {
+                if (this.cells.get(row * COLUMNS + column)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Clears the cells hit by something, along with those around them
+     * @param impact collision box of what hit the bunker
+     * @return indexes of the cells that were cleared
+     */
+    public List<Integer> erode(Bounds impact) {
+        List<Integer> cleared = new ArrayList<>();
+
+        Integer[] range = this.cellRange(impact, BLAST_RADIUS);
+        for (int row = range[1]; row <= range[3]; ++row) {
+            for (int column = range[0]; column <= range[2]; ++column) {
+                Integer cell = row * COLUMNS + column;
+                if (this.cells.get(cell)) {
+                    this.cells.clear(cell);
+                    cleared.add(cell);
+                }
+            }
+        }
+
+        return cleared;
+    }
+
+    /**
+     * Indicates whether every cell of the bunker was cleared
+     * @return true if nothing is left of the bunker, false otherwise
+     */
+    public Boolean isDestroyed() {
+        return this.cells.isEmpty();
+    }
+
+    /**
+     * Computes which cells of the mask a box overlaps
+     * @param bounds box, in game coordinates
+     * @param margin extra cells to include in every direction
+     * @return cell range as {first column, first row, last column, last row}, empty if it is outside the mask
+     */
+    private Integer[] cellRange(Bounds bounds, Integer margin) {
+        Position origin = this.getPosition();
+        Integer left = Math.floorDiv(bounds.getOrigin().getX() - origin.getX(), CELL_SIZE) - margin;
+        Integer top = Math.floorDiv(bounds.getOrigin().getY() - origin.getY(), CELL_SIZE) - margin;
+        Integer right = Math.floorDiv(bounds.getOrigin().getX() + bounds.getSize().getWidth() - 1 - origin.getX(), CELL_SIZE) + margin;
+        Integer bottom = Math.floorDiv(bounds.getOrigin().getY() + bounds.getSize().getHeight() - 1 - origin.getY(), CELL_SIZE) + margin;
+
+        return new Integer[] {
+            Math.max(0, left), Math.max(0, top), Math.min(COLUMNS - 1, right), Math.min(ROWS - 1, bottom)
+        };
+    }
 }
@@ -1,6 +1,8 @@
 package cr.ac.tec.ce3104.gameobjects;
 
 import cr.ac.tec.ce3104.Game;
+import cr.ac.tec.ce3104.comms.Command;
+import cr.ac.tec.ce3104.modes.InFormation;
 import cr.ac.tec.ce3104.modes.Mode;
 import cr.ac.tec.ce3104.physics.Dynamics;
 import cr.ac.tec.ce3104.physics.Position;
@@ -10,6 +12,11 @@ public abstract class Enemy extends GameObject {
     private Integer score;
     private Boolean isList;
 
+    // Formation the enemy moves with, if any, where it was enlisted in it and where it is relative to it
+    private Formation formation = null;
+    private Integer formationIndex = null;
+    private Position offset = null;
+
     protected Game game;
 
     /**
@@ -37,11 +44,67 @@ public abstract class Enemy extends GameObject {
         this.isList = isList;
         this.game = game;
     }
+    /**
+     * Makes the put command. Members of a formation are placed relative to it
+     * @return command to send to different clients
+     */
+    @Override
+    public Command makePutCommand() {
+        if (this.formation == null) {
+            return super.makePutCommand();
+        }
+
+        return Command.cmdPut(this.getId(), this.offset, this.getZ(), this.getMode().getSpeed(), this.getMode().getSequence())
+                .putInt("parent", this.formation.getId());
+    }
+
+    /**
+     * Makes the enemy a member of a formation, from then on it only moves along with it
+     * @param formation formation to join
+     * @param formationIndex index of the enemy among the members of the formation
+     * @param offset position relative to the formation
+     */
+    void joinFormation(Formation formation, Integer formationIndex, Position offset) {
+        this.formation = formation;
+        this.formationIndex = formationIndex;
+        this.offset = offset;
+        this.switchTo(new InFormation(this.getMode().getSequence()));
+    }
+
+    /**
+     * Gets the formation the enemy is part of
+     * @return formation, or null if the enemy moves by itself
+     */
+    public Formation getFormation() {
+        return this.formation;
+    }
+
+    /**
+     * Gets where the enemy was enlisted among the members of its formation
+     * @return index of the enemy in its formation, or null if the enemy moves by itself
+     */
+    Integer getFormationIndex() {
+        return this.formationIndex;
+    }
+
+    /**
+     * Gets where the enemy is relative to its formation
+     * @return offset from the formation, or null if the enemy moves by itself
+     */
+    public Position getOffset() {
+        return this.offset;
+    }
+
     @Override
     public Dynamics getDynamics() {
         return Dynamics.INTERACTIVE;
     }
 
+    @Override
+    public EntityKind getKind() {
+        return EntityKind.ENEMY;
+    }
+
     /**
      * Obtains the score that should be added to the player if he eliminates the enemy
      * @return score given by the enemy when eliminated by the player
@@ -74,6 +137,6 @@ public abstract class Enemy extends GameObject {
      * @param position position to spawn the enemy.
      */
     public void createShot(Position position){
-        game.spawn(new EnemyShot(0, position));
+        game.spawn(game.acquireEnemyShot(0, position));
     }
 }
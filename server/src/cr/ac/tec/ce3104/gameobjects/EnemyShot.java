@@ -3,15 +3,34 @@ package cr.ac.tec.ce3104.gameobjects;
 import cr.ac.tec.ce3104.modes.EnemyShotMoving;
 import cr.ac.tec.ce3104.physics.Position;
 
+import java.util.SplittableRandom;
+
 // Class for enemy shots
 public class EnemyShot extends Shot{
+    private final EnemyShotMoving moving;
 
     /**
      * Constructor of the class.
      * @param difficulty difficulty of the game.
      * @param position position of the shot.
+     * @param random source of randomness of the game, which picks how the shot looks
      */
-    public EnemyShot(Integer difficulty, Position position) {
-        super(new EnemyShotMoving(Shot.getSpeedDenominator(difficulty)), position);
+    public EnemyShot(Integer difficulty, Position position, SplittableRandom random) {
+        this(new EnemyShotMoving(Shot.getSpeedDenominator(difficulty), random), position);
+    }
+
+    /**
+     * Create a shot that keeps a reference to its mode, to reset it when the shot is recycled
+     * @param moving mode of the shot
+     * @param position position of the shot
+     */
+    private EnemyShot(EnemyShotMoving moving, Position position) {
+        super(moving, position);
+        this.moving = moving;
+    }
+
+    @Override
+    protected void resetMode(Integer speedDenominator) {
+        this.moving.reset(speedDenominator);
     }
 }
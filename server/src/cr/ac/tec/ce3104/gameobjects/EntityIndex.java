@@ -0,0 +1,108 @@
+package cr.ac.tec.ce3104.gameobjects;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import cr.ac.tec.ce3104.physics.Dynamics;
+
+// Secondary indexes over the entities of a game, by dynamics and by kind. They are kept next to
+// the id map so that queries visit only the entities they are about. Every update is constant time
+public class EntityIndex {
+    private EnumMap<Dynamics, LinkedHashMap<Integer, GameObject>> byDynamics = new EnumMap<>(Dynamics.class);
+    private EnumMap<EntityKind, LinkedHashMap<Integer, GameObject>> byKind = new EnumMap<>(EntityKind.class);
+
+    // Dynamics each entity is indexed under, since they may change along with its mode
+    private HashMap<Integer, Dynamics> indexedDynamics = new HashMap<>();
+
+    /**
+     * Creates empty indexes
+     */
+    public EntityIndex() {
+        for (Dynamics dynamics : Dynamics.values()) {
+            this.byDynamics.put(dynamics, new LinkedHashMap<>());
+        }
+
+        for (EntityKind kind : EntityKind.values()) {
+            this.byKind.put(kind, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Indexes an entity that was just spawned
+     * @param object new entity
+     */
+    public void add(GameObject object) {
+        Dynamics dynamics = object.getDynamics();
+        this.indexedDynamics.put(object.getId(), dynamics);
+
+        this.byDynamics.get(dynamics).put(object.getId(), object);
+        this.byKind.get(object.getKind()).put(object.getId(), object);
+    }
+
+    /**
+     * Stops indexing an entity that was deleted. Unknown entities are ignored
+     * @param object deleted entity
+     */
+    public void remove(GameObject object) {
+        Dynamics dynamics = this.indexedDynamics.remove(object.getId());
+        if (dynamics == null) {
+            return;
+        }
+
+        this.byDynamics.get(dynamics).remove(object.getId());
+        this.byKind.get(object.getKind()).remove(object.getId());
+    }
+
+    /**
+     * Moves an entity to the dynamics it currently has, after its mode changed. Unknown entities are ignored
+     * @param object entity to update
+     * @return dynamics the entity was indexed under before, or null if it is unknown
+     */
+    public Dynamics update(GameObject object) {
+        Dynamics previous = this.indexedDynamics.get(object.getId());
+        Dynamics current = object.getDynamics();
+        if (previous != null && previous != current) {
+            this.byDynamics.get(previous).remove(object.getId());
+            this.byDynamics.get(current).put(object.getId(), object);
+            this.indexedDynamics.put(object.getId(), current);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Removes every entity
+     */
+    public void clear() {
+        this.indexedDynamics.clear();
+
+        for (LinkedHashMap<Integer, GameObject> objects : this.byDynamics.values()) {
+            objects.clear();
+        }
+
+        for (LinkedHashMap<Integer, GameObject> objects : this.byKind.values()) {
+            objects.clear();
+        }
+    }
+
+    /**
+     * Gets the entities that currently have some dynamics
+     * @param dynamics type of collisions
+     * @return read-only view of the entities, in spawn order
+     */
+    public Collection<GameObject> withDynamics(Dynamics dynamics) {
+        return Collections.unmodifiableCollection(this.byDynamics.get(dynamics).values());
+    }
+
+    /**
+     * Gets the entities of a kind
+     * @param kind role in the game
+     * @return read-only view of the entities, in spawn order
+     */
+    public Collection<GameObject> ofKind(EntityKind kind) {
+        return Collections.unmodifiableCollection(this.byKind.get(kind).values());
+    }
+}
@@ -0,0 +1,25 @@
+package cr.ac.tec.ce3104.gameobjects;
+
+// Enumerator to indicate which role an entity plays in the game, used to look entities up by role
+public enum EntityKind {
+    PLAYER,
+    ENEMY,
+    SHOT,
+    OTHER;
+
+    /**
+     * Parses a kind name, as typed in the admin console
+     * @param kind kind name
+     * @return kind
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static EntityKind parse(String kind) {
+        return switch (kind) {
+            case "player" -> EntityKind.PLAYER;
+            case "enemies" -> EntityKind.ENEMY;
+            case "shots" -> EntityKind.SHOT;
+            case "other" -> EntityKind.OTHER;
+            default -> throw new IllegalArgumentException("unknown entity kind: " + kind);
+        };
+    }
+}
@@ -0,0 +1,190 @@
+package cr.ac.tec.ce3104.gameobjects;
+
+import cr.ac.tec.ce3104.modes.EnemyMoving;
+import cr.ac.tec.ce3104.physics.Bounds;
+import cr.ac.tec.ce3104.physics.Dynamics;
+import cr.ac.tec.ce3104.physics.Position;
+import cr.ac.tec.ce3104.physics.Size;
+import cr.ac.tec.ce3104.resources.Animation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// A wave of enemies that moves as a single unit. Members keep a fixed offset from the formation, so that a step
+// or a turn of the whole wave is a single put of the formation
+public class Formation extends GameObject {
+    // Members in the order they were enlisted, those still alive are set in `alive`
+    private List<Enemy> members = new ArrayList<>();
+    private BitSet alive = new BitSet();
+
+    // Box around the living members, relative to the formation. It only changes when members join or die, so it
+    // is kept instead of being measured on every step
+    private int extentLeft = 0;
+    private int extentTop = 0;
+    private Size extentSize = new Size(0, 0);
+
+    /**
+     * Creates an empty formation
+     * @param difficulty difficulty of the wave, the higher it is, the faster it moves
+     * @param position position of the formation, from which member offsets are measured
+     * @param isList validates if the formation is an enemy line
+     */
+    public Formation(Integer difficulty, Position position, Boolean isList) {
+        super(new EnemyMoving(Enemy.getSpeedDenominator(difficulty), isList, Animation.NONE), position);
+    }
+
+    /**
+     * Adds an enemy to the formation, keeping the offset it currently has from it. Must be called before
+     * either of them is spawned
+     * @param enemy new member
+     */
+    public void enlist(Enemy enemy) {
+        Position origin = this.getPosition();
+        Position position = enemy.getPosition();
+        enemy.joinFormation(this, this.members.size(),
+                new Position(position.getX() - origin.getX(), position.getY() - origin.getY()));
+
+        this.alive.set(this.members.size());
+        this.members.add(enemy);
+        this.measure();
+    }
+
+    /**
+     * Removes a dead member from the formation
+     * @param enemy member that was deleted
+     */
+    public void dismiss(Enemy enemy) {
+        Integer index = enemy.getFormationIndex();
+        if (index != null && this.members.get(index) == enemy && this.alive.get(index)) {
+            this.alive.clear(index);
+            this.measure();
+        }
+    }
+
+    /**
+     * Gets the index of the first living member enlisted at or after another index, so that members can be
+     * walked without allocating
+     * @param index index to start from
+     * @return index of the member, or -1 if there is none
+     */
+    public int nextMember(int index) {
+        return this.alive.nextSetBit(index);
+    }
+
+    /**
+     * Gets a member by the order in which it was enlisted
+     * @param index index of the member, as given by `nextMember`
+     * @return member, which may have died since
+     */
+    public Enemy getMember(int index) {
+        return this.members.get(index);
+    }
+
+    /**
+     * Gets the members that are still alive, into a new list
+     * @return living members, in the order they were enlisted
+     */
+    public List<Enemy> getMembers() {
+        List<Enemy> living = new ArrayList<>();
+        for (int index = this.alive.nextSetBit(0); index >= 0; index = this.alive.nextSetBit(index + 1)) {
+            living.add(this.members.get(index));
+        }
+
+        return living;
+    }
+
+    /**
+     * Indicates whether every member of the formation died
+     * @return true if no member is left, false otherwise
+     */
+    public Boolean isEmpty() {
+        return this.alive.isEmpty();
+    }
+
+    /**
+     * Moves the formation along with every living member
+     * @param x new horizontal coordinate of the formation
+     * @param y new vertical coordinate of the formation
+     */
+    @Override
+    public void relocate(int x, int y) {
+        // Members go first, since the formation may turn and relocate again as soon as it moves
+        for (int index = this.alive.nextSetBit(0); index >= 0; index = this.alive.nextSetBit(index + 1)) {
+            Enemy member = this.members.get(index);
+            Position offset = member.getOffset();
+            member.relocate(x + offset.getX(), y + offset.getY());
+        }
+
+        super.relocate(x, y);
+    }
+
+    @Override
+    public Dynamics getDynamics() {
+        // Members collide by themselves
+        return Dynamics.FLOATING;
+    }
+
+    @Override
+    protected Integer getZ() {
+        // Below its members, so that clients step the formation before drawing them
+        return 0;
+    }
+
+    @Override
+    public Size getSize() {
+        return this.extentSize;
+    }
+
+    @Override
+    public int getBoxOffsetX() {
+        return this.extentLeft;
+    }
+
+    @Override
+    public int getBoxOffsetY() {
+        return this.extentTop;
+    }
+
+    /**
+     * Gets the box that encloses the living members if the formation were at a position, which is what bounces
+     * against the walls
+     * @param position position of the formation
+     * @return box around the living members
+     */
+    @Override
+    public Bounds getBoundsAt(Position position) {
+        return new Bounds(new Position(position.getX() + this.extentLeft, position.getY() + this.extentTop), this.extentSize);
+    }
+
+    /**
+     * Measures the box around the living members again, after one of them joined or died
+     */
+    private void measure() {
+        Integer left = null;
+        Integer top = null;
+        Integer right = null;
+        Integer bottom = null;
+
+        for (int index = this.alive.nextSetBit(0); index >= 0; index = this.alive.nextSetBit(index + 1)) {
+            Enemy member = this.members.get(index);
+            Position offset = member.getOffset();
+            Size size = member.getSize();
+
+            left = left == null ? offset.getX() : Math.min(left, offset.getX());
+            top = top == null ? offset.getY() : Math.min(top, offset.getY());
+            right = right == null ? offset.getX() + size.getWidth() : Math.max(right, offset.getX() + size.getWidth());
+            bottom = bottom == null ? offset.getY() + size.getHeight() : Math.max(bottom, offset.getY() + size.getHeight());
+        }
+
+        if (left == null) {
+            this.extentLeft = 0;
+            this.extentTop = 0;
+            this.extentSize = new Size(0, 0);
+        } else {
+            this.extentLeft = left;
+            this.extentTop = top;
+            this.extentSize = new Size(right - left, bottom - top);
+        }
+    }
+}
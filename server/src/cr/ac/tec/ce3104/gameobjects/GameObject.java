@@ -5,9 +5,13 @@ import cr.ac.tec.ce3104.modes.Mode;
 import cr.ac.tec.ce3104.modes.Static;
 import cr.ac.tec.ce3104.physics.Bounds;
 import cr.ac.tec.ce3104.physics.Dynamics;
+import cr.ac.tec.ce3104.physics.EntityStore;
 import cr.ac.tec.ce3104.physics.Position;
 import cr.ac.tec.ce3104.physics.Size;
 import cr.ac.tec.ce3104.resources.Sprite;
+import cr.ac.tec.ce3104.resources.SpriteMask;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class GameObject {
     // Internal Entity Properties
@@ -15,7 +19,13 @@ public abstract class GameObject {
     private Position position;
     private Mode mode;
     private GameObjectObserver observer = null;
-    private static Integer nextId = 0;
+    // Games run on several shards at once, so ids are handed out atomically
+    private static final AtomicInteger nextId = new AtomicInteger(0);
+
+    // While the entity is part of a game its physical state lives in the game's store, `position` is only
+    // used before and after that
+    private EntityStore store = null;
+    private Integer slot = null;
 
     /**
      * Create a new entity from a sprite and a position
@@ -31,7 +41,7 @@ public abstract class GameObject {
      * @param position entity position
      */
     public GameObject(Mode mode, Position position) {
-        this.id = nextId++;
+        this.id = nextId.getAndIncrement();
         this.position = position;
         this.mode = mode;
     }
@@ -41,7 +51,7 @@ public abstract class GameObject {
      * @return command to send to different clients
      */
     public Command makePutCommand() {
-        return Command.cmdPut(this.id, this.position, this.getZ(), this.mode.getSpeed(), this.mode.getSequence());
+        return Command.cmdPut(this.id, this.getPosition(), this.getZ(), this.mode.getSpeed(), this.mode.getSequence());
     }
 
     /**
@@ -66,17 +76,44 @@ public abstract class GameObject {
      * @param position position to relocate the entity
      */
     public void relocate(Position position) {
-        this.position = position;
+        this.relocate(position.getX(), position.getY());
+    }
+
+    /**
+     * Changes the position of the entity, without allocating while the entity is part of a game
+     * @param x new horizontal coordinate
+     * @param y new vertical coordinate
+     */
+    public void relocate(int x, int y) {
+        if (this.store != null) {
+            this.store.setPosition(this.slot, x, y);
+        } else {
+            this.position = new Position(x, y);
+        }
+
+        if (this.observer != null) {
+            this.observer.onObjectRelocated(this);
+        }
+
         this.mode.onRelocate(this);
     }
 
+    /**
+     * Places an entity that is not part of a game, such as a recycled one that is about to be spawned again.
+     * Nothing is notified
+     * @param position new position of the entity
+     */
+    protected void reposition(Position position) {
+        assert this.store == null && this.observer == null;
+        this.position = position;
+    }
+
     /**
      * Deletes the records of the current entity from its observer, technically deleting itself
      */
     public void delete() {
         if (this.observer != null) {
             this.observer.onObjectDeleted(this);
-            this.observer.log("Object " + this.id + " deleted");
             this.observer = null;
         }
     }
@@ -87,6 +124,14 @@ public abstract class GameObject {
      */
     public abstract Dynamics getDynamics();
 
+    /**
+     * Gets which role the object plays in the game
+     * @return kind of entity
+     */
+    public EntityKind getKind() {
+        return EntityKind.OTHER;
+    }
+
     /**
      * Change the mode of the rendered entity
      * @param newMode mode you want to transition to
@@ -95,6 +140,11 @@ public abstract class GameObject {
         Mode previous = this.mode;
         this.mode = newMode;
 
+        // Size and speed may have changed
+        if (this.store != null) {
+            this.store.refresh(this);
+        }
+
         if (this.observer != null) {
             this.observer.onObjectModeChanged(this);
             if (previous.getClass() != newMode.getClass()) {
@@ -118,6 +168,19 @@ public abstract class GameObject {
      */
     public void onFloatingContact(GameObject floating) {}
 
+    /**
+     * Indicates whether the entity actually occupies part of a box that overlaps its collision box, for
+     * entities whose shape does not fill it
+     * @param x horizontal coordinate of a box that overlaps the collision box of the entity
+     * @param y vertical coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @return true if they collide, false otherwise
+     */
+    public boolean overlaps(int x, int y, int width, int height) {
+        return true;
+    }
+
     /**
      * Indicates whether the current entity is capable of damaging the player
      * @return true if the entity can harm the player, false otherwise
@@ -139,7 +202,8 @@ public abstract class GameObject {
      */
     @Override
     public String toString() {
-        return this.getClass().getSimpleName() + " #" + this.id + " at (" + this.position.getX() + ", " + this.position.getY() + ")";
+        Position position = this.getPosition();
+        return this.getClass().getSimpleName() + " #" + this.id + " at (" + position.getX() + ", " + position.getY() + ")";
     }
 
     /**
@@ -163,9 +227,29 @@ public abstract class GameObject {
      * @return current position of the entity
      */
     public Position getPosition() {
+        if (this.store != null) {
+            return new Position(this.store.getX(this.slot), this.store.getY(this.slot));
+        }
+
         return this.position;
     }
 
+    /**
+     * Gets the horizontal coordinate of the entity, without allocating while the entity is part of a game
+     * @return horizontal coordinate
+     */
+    public int getX() {
+        return this.store != null ? this.store.getX(this.slot) : this.position.getX();
+    }
+
+    /**
+     * Gets the vertical coordinate of the entity, without allocating while the entity is part of a game
+     * @return vertical coordinate
+     */
+    public int getY() {
+        return this.store != null ? this.store.getY(this.slot) : this.position.getY();
+    }
+
     /**
      * Gets the horizontal and vertical dimensions of the feature
      * @return entity dimensions
@@ -174,12 +258,91 @@ public abstract class GameObject {
         return this.mode.getSequence().getSize();
     }
 
+    /**
+     * Gets how far to the right of the position of the entity its collision box starts
+     * @return horizontal offset of the collision box
+     */
+    public int getBoxOffsetX() {
+        return 0;
+    }
+
+    /**
+     * Gets how far below the position of the entity its collision box starts
+     * @return vertical offset of the collision box
+     */
+    public int getBoxOffsetY() {
+        return 0;
+    }
+
+    /**
+     * Gets which pixels of the entity collide, as opposed to the transparent corners of its collision box
+     * @return alpha mask of the current sequence, or null if the whole box collides
+     */
+    public SpriteMask getMask() {
+        return this.mode.getSequence().getMask();
+    }
+
     /**
      * Gets the collision box of the entity
      * @return entity collision box
      */
     public Bounds getBounds() {
-        return new Bounds(this.position, this.getSize());
+        return this.getBoundsAt(this.getPosition());
+    }
+
+    /**
+     * Gets the collision box the entity would have at a position
+     * @param position position of the entity
+     * @return entity collision box at that position
+     */
+    public Bounds getBoundsAt(Position position) {
+        return new Bounds(position, this.getSize());
+    }
+
+    /**
+     * Indicates whether the collision box of the entity overlaps a box, without allocating while the entity is
+     * part of a game
+     * @param x horizontal coordinate of the box
+     * @param y vertical coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @return true if the boxes overlap, false otherwise
+     */
+    public boolean intersects(int x, int y, int width, int height) {
+        if (this.store != null) {
+            return this.store.intersects(this.slot, x, y, width, height);
+        }
+
+        return this.getBounds().collidesWith(new Bounds(new Position(x, y), new Size(width, height)));
+    }
+
+    /**
+     * Links the entity to the slot that holds its physical state. Only called by the store
+     * @param store store of the game the entity is part of
+     * @param slot slot in the store
+     */
+    public void bind(EntityStore store, Integer slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+    /**
+     * Unlinks the entity from its store, keeping its last position. Only called by the store
+     */
+    public void unbind() {
+        if (this.store != null) {
+            this.position = new Position(this.store.getX(this.slot), this.store.getY(this.slot));
+            this.store = null;
+            this.slot = null;
+        }
+    }
+
+    /**
+     * Gets the slot that holds the physical state of the entity
+     * @return slot in the game's store, or null if the entity is not part of a game
+     */
+    public Integer getSlot() {
+        return this.slot;
     }
 
     /**
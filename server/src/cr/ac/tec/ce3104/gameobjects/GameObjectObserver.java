@@ -7,6 +7,12 @@ public interface GameObjectObserver {
      */
     void onObjectDeleted(GameObject object);
 
+    /**
+     * Indicates what actions to take when the given entity is moved to a new position
+     * @param object relocated entity
+     */
+    void onObjectRelocated(GameObject object);
+
     /**
      * Indicates what actions to take given a change in the mode of the given entity
      * @param object entity whose mode has changed
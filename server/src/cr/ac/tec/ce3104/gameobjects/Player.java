@@ -1,16 +1,18 @@
 package cr.ac.tec.ce3104.gameobjects;
 
 import cr.ac.tec.ce3104.Game;
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
 import cr.ac.tec.ce3104.modes.Mode;
 import cr.ac.tec.ce3104.modes.PlayerMoving;
 import cr.ac.tec.ce3104.modes.PlayerStanding;
 import cr.ac.tec.ce3104.physics.Dynamics;
 import cr.ac.tec.ce3104.physics.Position;
 
-import static java.lang.Thread.sleep;
-
 
 public class Player extends GameObject{
+    private static final Integer RELOAD_MILLIS = 1000;
+
     private Integer score;
     private Integer lives;
     private Boolean lost = false;
@@ -44,6 +46,11 @@ public class Player extends GameObject{
         return this.lost ? Dynamics.FLOATING : Dynamics.INTERACTIVE;
     }
 
+    @Override
+    public EntityKind getKind() {
+        return EntityKind.PLAYER;
+    }
+
     /**
      * Change the dynamics mode of the player.
      * @param newMode mode you want to transition to
@@ -61,13 +68,13 @@ public class Player extends GameObject{
     public void onInteraction(GameObject other) {
         if (other.isDangerous()) {
             //this.die();
-            System.out.println("You die");
+            Log.getInstance().debug(LogCategory.GAME, "You die");
         }
     }
 
     @Override
     public void onFloatingContact(GameObject floating) {
-        System.out.println("onFloatingContact");
+        Log.getInstance().debug(LogCategory.GAME, "onFloatingContact");
     }
 
     /**
@@ -76,20 +83,11 @@ public class Player extends GameObject{
      */
     public void createShoot(Position position) {
         if(hasShotAvailable){
-            game.spawn(new PlayerShot(0, position));
-
-            // Waits 2 seconds to reload.
-            Runnable reloadShot = () -> {
-                this.hasShotAvailable = false;
-                try {
-                    sleep(1000);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-                this.hasShotAvailable = true;
-            };
-            Thread t = new Thread(reloadShot);
-            t.start();
+            game.spawn(game.acquirePlayerShot(0, position));
+
+            // The next shot is available once the weapon reloads
+            this.hasShotAvailable = false;
+            this.game.schedule(() -> this.hasShotAvailable = true, RELOAD_MILLIS);
         }
     }
 
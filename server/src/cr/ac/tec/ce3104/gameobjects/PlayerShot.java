@@ -5,12 +5,29 @@ import cr.ac.tec.ce3104.physics.Position;
 
 // Class for player shots
 public class PlayerShot extends Shot{
+    private final PlayerShotMoving moving;
+
     /**
      * Create a shot when the player press space or w
      * @param difficulty entity velocity
      * @param position same as player
      */
     public PlayerShot(Integer difficulty, Position position) {
-        super(new PlayerShotMoving(Shot.getSpeedDenominator(difficulty)), position);
+        this(new PlayerShotMoving(Shot.getSpeedDenominator(difficulty)), position);
+    }
+
+    /**
+     * Create a shot that keeps a reference to its mode, to reset it when the shot is recycled
+     * @param moving mode of the shot
+     * @param position same as player
+     */
+    private PlayerShot(PlayerShotMoving moving, Position position) {
+        super(moving, position);
+        this.moving = moving;
+    }
+
+    @Override
+    protected void resetMode(Integer speedDenominator) {
+        this.moving.reset(speedDenominator);
     }
 }
@@ -0,0 +1,143 @@
+package cr.ac.tec.ce3104.gameobjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Live index of the enemies that may shoot: the bottom-most one of every column, as those above would hit their
+// own ranks. Columns and rows are taken from where an enemy spawns, since formations keep their shape while moving
+public class ShooterIndex {
+    // Enemy lines are laid out this many pixels apart
+    private static final Integer COLUMN_WIDTH = 20;
+
+    // Enemies of every column, the bottom-most first
+    private HashMap<Integer, List<Enemy>> columns = new HashMap<>();
+    // Column and row of every indexed enemy, by id
+    private HashMap<Integer, Integer> columnOf = new HashMap<>();
+    private HashMap<Integer, Integer> rowOf = new HashMap<>();
+
+    // Current shooters, densely packed, and where each one is in that array
+    private Enemy[] shooters = new Enemy[16];
+    private Integer shooterCount = 0;
+    private HashMap<Integer, Integer> shooterSlots = new HashMap<>();
+
+    /**
+     * Indexes an enemy that was just spawned
+     * @param enemy new enemy
+     */
+    public void add(Enemy enemy) {
+        Integer column = Math.floorDiv(enemy.getPosition().getX(), COLUMN_WIDTH);
+        Integer row = enemy.getPosition().getY();
+        this.columnOf.put(enemy.getId(), column);
+        this.rowOf.put(enemy.getId(), row);
+
+        List<Enemy> members = this.columns.computeIfAbsent(column, key -> new ArrayList<>());
+        Integer index = 0;
+        while (index < members.size() && this.rowOf.get(members.get(index).getId()) >= row) {
+            ++index;
+        }
+
+        members.add(index, enemy);
+        if (index == 0) {
+            // The enemy is now the lowest of its column and covers the one that used to be
+            if (members.size() > 1) {
+                this.demote(members.get(1));
+            }
+
+            this.promote(enemy);
+        }
+    }
+
+    /**
+     * Stops indexing an enemy that was deleted. Unknown enemies are ignored
+     * @param enemy deleted enemy
+     */
+    public void remove(Enemy enemy) {
+        Integer column = this.columnOf.remove(enemy.getId());
+        if (column == null) {
+            return;
+        }
+
+        this.rowOf.remove(enemy.getId());
+
+        List<Enemy> members = this.columns.get(column);
+        Boolean wasShooter = members.get(0) == enemy;
+        members.remove(enemy);
+
+        if (wasShooter) {
+            this.demote(enemy);
+            if (!members.isEmpty()) {
+                // The enemy right above takes over
+                this.promote(members.get(0));
+            }
+        }
+
+        if (members.isEmpty()) {
+            this.columns.remove(column);
+        }
+    }
+
+    /**
+     * Removes every enemy
+     */
+    public void clear() {
+        this.columns.clear();
+        this.columnOf.clear();
+        this.rowOf.clear();
+        this.shooterSlots.clear();
+
+        Arrays.fill(this.shooters, 0, this.shooterCount, null);
+        this.shooterCount = 0;
+    }
+
+    /**
+     * Picks one of the enemies that may shoot, in constant time
+     * @param random source of randomness
+     * @return chosen shooter, or null if there are no enemies
+     */
+    public Enemy pick(SplittableRandom random) {
+        if (this.shooterCount == 0) {
+            return null;
+        }
+
+        return this.shooters[random.nextInt(this.shooterCount)];
+    }
+
+    /**
+     * Gets how many enemies are indexed, whether they may shoot or not
+     * @return number of enemies
+     */
+    public Integer getEnemies() {
+        return this.columnOf.size();
+    }
+
+    /**
+     * Adds an enemy to the shooters
+     * @param enemy enemy that became the lowest of its column
+     */
+    private void promote(Enemy enemy) {
+        if (this.shooterCount == this.shooters.length) {
+            this.shooters = Arrays.copyOf(this.shooters, this.shooters.length * 2);
+        }
+
+        this.shooterSlots.put(enemy.getId(), this.shooterCount);
+        this.shooters[this.shooterCount++] = enemy;
+    }
+
+    /**
+     * Removes an enemy from the shooters. The last shooter takes its place, so that shooters stay packed
+     * @param enemy enemy that is no longer the lowest of its column
+     */
+    private void demote(Enemy enemy) {
+        Integer slot = this.shooterSlots.remove(enemy.getId());
+        Integer last = --this.shooterCount;
+        if (!slot.equals(last)) {
+            this.shooters[slot] = this.shooters[last];
+            this.shooterSlots.put(this.shooters[slot].getId(), slot);
+        }
+
+        this.shooters[last] = null;
+    }
+}
@@ -15,11 +15,32 @@ public abstract class Shot extends GameObject{
         super(mode, position);
     }
 
+    /**
+     * Readies a deleted shot to be spawned again as if it were new. It keeps its id
+     * @param difficulty difficulty of the game
+     * @param position position in which the shot is placed
+     */
+    public void rearm(Integer difficulty, Position position) {
+        this.reposition(position);
+        this.resetMode(Shot.getSpeedDenominator(difficulty));
+    }
+
+    /**
+     * Puts the mode of the shot back to how it starts
+     * @param speedDenominator number of ticks between moves
+     */
+    protected abstract void resetMode(Integer speedDenominator);
+
     @Override
     public Dynamics getDynamics() {
         return Dynamics.INTERACTIVE;
     }
 
+    @Override
+    public EntityKind getKind() {
+        return EntityKind.SHOT;
+    }
+
     @Override
     public Boolean isDangerous() {
         return true;
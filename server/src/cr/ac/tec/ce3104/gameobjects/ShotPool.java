@@ -0,0 +1,64 @@
+package cr.ac.tec.ce3104.gameobjects;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import cr.ac.tec.ce3104.physics.Position;
+
+// Recycles the shots of a game. Deleted shots are retired first and only become reusable once `recycle()` is
+// called, so that nothing that saw a shot die within the same event sees it come back under the same id
+public class ShotPool<T extends Shot> {
+    // Shots kept for reuse, beyond which deleted shots are left to the garbage collector
+    private static final Integer MAX_IDLE = 64;
+
+    private final BiFunction<Integer, Position, T> factory;
+    private final ArrayDeque<T> idle = new ArrayDeque<>();
+    private final List<T> retired = new ArrayList<>();
+
+    /**
+     * Creates an empty pool
+     * @param factory creates a shot when there is none to reuse, from a difficulty and a position
+     */
+    public ShotPool(BiFunction<Integer, Position, T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Gets a shot that is ready to be spawned, reusing a deleted one if possible
+     * @param difficulty difficulty of the game
+     * @param position position in which the shot is placed
+     * @return new or recycled shot
+     */
+    public T acquire(Integer difficulty, Position position) {
+        T shot = this.idle.poll();
+        if (shot == null) {
+            return this.factory.apply(difficulty, position);
+        }
+
+        shot.rearm(difficulty, position);
+        return shot;
+    }
+
+    /**
+     * Takes back a shot that was deleted from the game
+     * @param shot deleted shot
+     */
+    public void release(T shot) {
+        if (this.idle.size() + this.retired.size() < MAX_IDLE) {
+            this.retired.add(shot);
+        }
+    }
+
+    /**
+     * Makes retired shots available for reuse
+     */
+    public void recycle() {
+        for (int i = 0; i < this.retired.size(); ++i) {
+            this.idle.add(this.retired.get(i));
+        }
+
+        this.retired.clear();
+    }
+}
@@ -19,67 +19,12 @@ public class Level1 implements Level{
 
     @Override
     public Player setup(Game game, Integer initialScore, Integer initialLives) {
-        // Bunkers
-        Integer i;
-        Integer posX = 34;
+        // Bunkers, one per shield
+        Integer posX = 28;
         Integer posY = 190;
-        Integer count = 0;
-        while(count <= 3){
-            for (i = 0; i <= 2; i++){
-                game.spawn(new Bunker(new Position(posX, posY)));
-                posX += 4;
-            }
-
-            posX -= 16;
-            posY += 2;
-            for (i = 0; i <= 4; i++){
-                game.spawn(new Bunker(new Position(posX, posY)));
-                posX += 4;
-            }
-
-            posX -= 22;
-            posY += 4;
-            for (i = 0; i <= 5; i++){
-                game.spawn(new Bunker(new Position(posX, posY)));
-                posX += 4;
-            }
-
-            posX -= 16;
-            posY += 2;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 4;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX -= 12;
-            posY += 2;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 4;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 12;
+        for (Integer count = 0; count <= 3; count++) {
             game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 4;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX -= 20;
-            posY += 4;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 4;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 12;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 4;
-            game.spawn(new Bunker(new Position(posX, posY)));
-
-            posX += 45;
-            posY = 190;
-            count++;
+            posX += 59;
         }
 
         // PLayer
@@ -0,0 +1,320 @@
+package cr.ac.tec.ce3104.logging;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous logger. Any thread claims a slot of a bounded lock-free ring for its message, and a single background
+// thread writes the messages out to the sinks in batches, so that game threads never wait on the console or a file.
+// When the ring is full messages are dropped and counted instead of blocking
+public class Log {
+    // Slots in the ring, a power of two
+    private static final Integer CAPACITY = 8192;
+    private static final Integer MASK = CAPACITY - 1;
+    // Messages written out before the sinks are flushed
+    private static final Integer BATCH = 512;
+    // How long the drain thread sleeps when there is nothing to write
+    private static final Long IDLE_NANOS = 2_000_000L;
+    // Every this many messages the drain thread is woken up, so that bursts do not wait for it to notice
+    private static final Integer WAKE_EVERY = CAPACITY / 8;
+
+    // Singleton pattern
+    private static Log instance;
+
+    private final LogLevel level;
+    private final Integer[] sampleEvery = new Integer[LogCategory.values().length];
+    private final AtomicLongArray sampleCounters = new AtomicLongArray(LogCategory.values().length);
+    private final CopyOnWriteArrayList<LogSink> sinks = new CopyOnWriteArrayList<>();
+    private final Thread drainer;
+
+    // Ring slots. A slot may be written when its sequence equals the position claiming it, and read once it is one
+    // past that position; reading it makes it writable again one lap later
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final long[] times = new long[CAPACITY];
+    private final LogLevel[] levels = new LogLevel[CAPACITY];
+    private final LogCategory[] categories = new LogCategory[CAPACITY];
+    private final String[] messages = new String[CAPACITY];
+    private final AtomicLong tail = new AtomicLong(0);
+    private long head = 0;
+
+    // Messages lost because the ring was full, and how many of them have been reported
+    private final AtomicLong dropped = new AtomicLong(0);
+    private long reportedDropped = 0;
+
+    /**
+     * Sets up the logger. Must be called before anything is logged
+     * @param level least important level that is kept
+     * @param sampling for some categories, only one message out of this many is kept
+     * @param file file to also write the log to, or null to only write it to the standard output
+     */
+    public static synchronized void configure(LogLevel level, EnumMap<LogCategory, Integer> sampling, Path file) {
+        assert instance == null;
+        instance = new Log(level, sampling);
+
+        if (file != null) {
+            try {
+                instance.addSink(new RollingFileSink(file));
+            } catch (IOException exception) {
+                instance.warn(LogCategory.SERVER, "[SERVER] Unable to open log file " + file + ": " + exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the active logger. If it has not been configured before, every message from info up is kept
+     * @return reference to a single instance of the logger
+     */
+    public static synchronized Log getInstance() {
+        if (instance == null) {
+            instance = new Log(LogLevel.INFO, new EnumMap<>(LogCategory.class));
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor since the class is a Singleton
+     * @param level least important level that is kept
+     * @param sampling for some categories, only one message out of this many is kept
+     */
+    private Log(LogLevel level, EnumMap<LogCategory, Integer> sampling) {
+        this.level = level;
+        for (LogCategory category : LogCategory.values()) {
+            this.sampleEvery[category.ordinal()] = sampling.getOrDefault(category, 1);
+        }
+
+        for (int i = 0; i < CAPACITY; ++i) {
+            this.sequences.set(i, i);
+        }
+
+        this.sinks.add(new StreamSink(System.out));
+
+        this.drainer = new Thread(this::run, "log-drain");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+
+        // Whatever is still queued when the server exits is written out
+        Runtime.getRuntime().addShutdownHook(new Thread(this::drainAll, "log-flush"));
+    }
+
+    /**
+     * Indicates whether messages of a level are kept. Callers check it before building expensive messages
+     * @param level importance of the message
+     * @return true if messages of that level are kept, false otherwise
+     */
+    public Boolean isEnabled(LogLevel level) {
+        return level.compareTo(this.level) >= 0;
+    }
+
+    /**
+     * Queues a message, unless its level is discarded or it is a debug or info message of a sampled category. Never
+     * blocks
+     * @param level importance of the message
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    public void log(LogLevel level, LogCategory category, String message) {
+        if (!this.isEnabled(level)) {
+            return;
+        }
+
+        // Warnings and errors are never sampled out
+        Integer every = this.sampleEvery[category.ordinal()];
+        if (every > 1 && level.compareTo(LogLevel.WARN) < 0 && this.sampleCounters.getAndIncrement(category.ordinal()) % every != 0) {
+            return;
+        }
+
+        this.offer(System.currentTimeMillis(), level, category, message);
+    }
+
+    /**
+     * Queues a debug message
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    public void debug(LogCategory category, String message) {
+        this.log(LogLevel.DEBUG, category, message);
+    }
+
+    /**
+     * Queues an informative message
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    public void info(LogCategory category, String message) {
+        this.log(LogLevel.INFO, category, message);
+    }
+
+    /**
+     * Queues a warning
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    public void warn(LogCategory category, String message) {
+        this.log(LogLevel.WARN, category, message);
+    }
+
+    /**
+     * Queues an error
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    public void error(LogCategory category, String message) {
+        this.log(LogLevel.ERROR, category, message);
+    }
+
+    /**
+     * Queues an error along with the stack trace of the exception that caused it
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     * @param exception cause of the error
+     */
+    public void error(LogCategory category, String message, Throwable exception) {
+        if (!this.isEnabled(LogLevel.ERROR)) {
+            return;
+        }
+
+        StringWriter trace = new StringWriter();
+        exception.printStackTrace(new PrintWriter(trace));
+        this.error(category, message + ": " + trace.toString().stripTrailing());
+    }
+
+    /**
+     * Starts writing messages to another destination
+     * @param sink destination of the messages
+     */
+    public void addSink(LogSink sink) {
+        this.sinks.add(sink);
+    }
+
+    /**
+     * Gets how many messages were lost because the ring was full
+     * @return number of dropped messages
+     */
+    public Long getDropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Claims a slot of the ring and fills it
+     * @param timeMillis when the message was logged
+     * @param level importance of the message
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    private void offer(long timeMillis, LogLevel level, LogCategory category, String message) {
+        long position = this.tail.get();
+        int slot;
+        while (true) {
+            slot = (int)(position & MASK);
+            long sequence = this.sequences.get(slot);
+            if (sequence == position) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+
+                position = this.tail.get();
+            } else if (sequence < position) {
+                // The drain thread has not freed this slot yet, so the ring is full
+                this.dropped.incrementAndGet();
+                return;
+            } else {
+                // Another thread claimed this position first
+                position = this.tail.get();
+            }
+        }
+
+        this.times[slot] = timeMillis;
+        this.levels[slot] = level;
+        this.categories[slot] = category;
+        this.messages[slot] = message;
+
+        // Publishes the message to the drain thread
+        this.sequences.set(slot, position + 1);
+        if (position % WAKE_EVERY == 0) {
+            LockSupport.unpark(this.drainer);
+        }
+    }
+
+    /**
+     * Body of the drain thread
+     */
+    private void run() {
+        while (true) {
+            if (this.drain() == 0) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Writes out everything that is queued, used when the server exits
+     */
+    private void drainAll() {
+        while (this.drain() > 0) {}
+    }
+
+    /**
+     * Writes out a batch of queued messages and flushes the sinks. Only the drain thread and the shutdown hook get
+     * here, the lock keeps them from reading the ring at the same time
+     * @return number of messages written
+     */
+    private synchronized Integer drain() {
+        int count = 0;
+        while (count < BATCH) {
+            int slot = (int)(this.head & MASK);
+            if (this.sequences.get(slot) != this.head + 1) {
+                break;
+            }
+
+            this.write(this.times[slot], this.levels[slot], this.categories[slot], this.messages[slot]);
+            this.messages[slot] = null;
+            this.sequences.set(slot, this.head + CAPACITY);
+
+            ++this.head;
+            ++count;
+        }
+
+        long dropped = this.dropped.get();
+        if (dropped != this.reportedDropped) {
+            this.write(System.currentTimeMillis(), LogLevel.WARN, LogCategory.SERVER,
+                    "[SERVER] " + (dropped - this.reportedDropped) + " log messages were dropped");
+            this.reportedDropped = dropped;
+            ++count;
+        }
+
+        if (count > 0) {
+            for (LogSink sink : this.sinks) {
+                try {
+                    sink.flush();
+                } catch (RuntimeException exception) {
+                    // A broken sink must not stop the others
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Hands a message to every sink
+     * @param timeMillis when the message was logged
+     * @param level importance of the message
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    private void write(Long timeMillis, LogLevel level, LogCategory category, String message) {
+        for (LogSink sink : this.sinks) {
+            try {
+                sink.append(timeMillis, level, category, message);
+            } catch (RuntimeException exception) {
+                // Same as above
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package cr.ac.tec.ce3104.logging;
+
+// Part of the server a log message comes from. Each category can be sampled on its own
+public enum LogCategory {
+    // Startup and connections
+    SERVER,
+    // Client sessions
+    CLIENT,
+    // Game lifecycle
+    GAME,
+    // Entities spawned into a game
+    SPAWN;
+
+    /**
+     * Parses a log category from its textualization
+     * @param source representative text
+     * @return respective log category
+     * @throws IllegalArgumentException if the text names no log category
+     */
+    public static LogCategory parse(String source) {
+        return switch (source) {
+            case "server" -> LogCategory.SERVER;
+            case "client" -> LogCategory.CLIENT;
+            case "game" -> LogCategory.GAME;
+            case "spawn" -> LogCategory.SPAWN;
+            default -> throw new IllegalArgumentException("unknown log category: " + source);
+        };
+    }
+}
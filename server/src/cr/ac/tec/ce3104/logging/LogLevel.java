@@ -0,0 +1,29 @@
+package cr.ac.tec.ce3104.logging;
+
+// How important a log message is. Messages below the configured level are discarded before they are queued
+public enum LogLevel {
+    // Per-entity chatter, only useful while debugging
+    DEBUG,
+    // Normal operation
+    INFO,
+    // Something went wrong but the server keeps going
+    WARN,
+    // Something failed
+    ERROR;
+
+    /**
+     * Parses a log level from its textualization
+     * @param source representative text
+     * @return respective log level
+     * @throws IllegalArgumentException if the text names no log level
+     */
+    public static LogLevel parse(String source) {
+        return switch (source) {
+            case "debug" -> LogLevel.DEBUG;
+            case "info" -> LogLevel.INFO;
+            case "warn" -> LogLevel.WARN;
+            case "error" -> LogLevel.ERROR;
+            default -> throw new IllegalArgumentException("unknown log level: " + source);
+        };
+    }
+}
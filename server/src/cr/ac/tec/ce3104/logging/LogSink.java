@@ -0,0 +1,18 @@
+package cr.ac.tec.ce3104.logging;
+
+// Destination of log messages. Sinks are only called from the thread that drains the log, one batch at a time
+public interface LogSink {
+    /**
+     * Adds a message to the current batch
+     * @param timeMillis when the message was logged, in milliseconds since the epoch
+     * @param level importance of the message
+     * @param category part of the server the message comes from
+     * @param message text of the message
+     */
+    void append(Long timeMillis, LogLevel level, LogCategory category, String message);
+
+    /**
+     * Writes out the current batch
+     */
+    default void flush() {}
+}
@@ -0,0 +1,94 @@
+package cr.ac.tec.ce3104.logging;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+
+// Writes log messages to a file with their time, level and category. Once the file grows past a limit it is renamed
+// to `<file>.1`, older files shift to `<file>.2` and so on, and the oldest one is discarded
+public class RollingFileSink implements LogSink {
+    // Size a file may reach before it is rolled
+    private static final Long MAX_BYTES = 8L * 1024 * 1024;
+    // Rolled files kept besides the current one
+    private static final Integer KEEP = 3;
+
+    private final Path path;
+    private Writer writer;
+    private Long written;
+
+    /**
+     * Opens a log file, appending to it if it exists
+     * @param path log file
+     * @throws IOException error that can occur while opening the file
+     */
+    public RollingFileSink(Path path) throws IOException {
+        this.path = path;
+        this.open();
+    }
+
+    @Override
+    public void append(Long timeMillis, LogLevel level, LogCategory category, String message) {
+        String line = Instant.ofEpochMilli(timeMillis) + " " + level + " " + category + " " + message + "\n";
+
+        try {
+            if (this.written + line.length() > MAX_BYTES) {
+                this.roll();
+            }
+
+            this.writer.write(line);
+            this.written += line.length();
+        } catch (IOException exception) {
+            // There is nowhere else to report it, the message is lost
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            this.writer.flush();
+        } catch (IOException exception) {
+            // Same as above
+        }
+    }
+
+    /**
+     * Opens the current file for appending
+     * @throws IOException error that can occur while opening the file
+     */
+    private void open() throws IOException {
+        this.writer = new BufferedWriter(new FileWriter(this.path.toFile(), true));
+        this.written = Files.exists(this.path) ? Files.size(this.path) : 0L;
+    }
+
+    /**
+     * Shifts the rolled files by one and starts a new current file
+     * @throws IOException error that can occur while renaming or opening the files
+     */
+    private void roll() throws IOException {
+        this.writer.close();
+
+        for (Integer i = KEEP - 1; i >= 1; --i) {
+            Path older = this.rolled(i);
+            if (Files.exists(older)) {
+                Files.move(older, this.rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        Files.move(this.path, this.rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        this.open();
+    }
+
+    /**
+     * Gets the name of a rolled file
+     * @param generation how many rolls ago the file was current
+     * @return path of the rolled file
+     */
+    private Path rolled(Integer generation) {
+        return this.path.resolveSibling(this.path.getFileName() + "." + generation);
+    }
+}
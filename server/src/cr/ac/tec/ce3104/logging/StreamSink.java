@@ -0,0 +1,30 @@
+package cr.ac.tec.ce3104.logging;
+
+import java.io.PrintStream;
+
+// Writes log messages to a stream, such as the standard output, as they used to be printed
+public class StreamSink implements LogSink {
+    private final PrintStream stream;
+    private final StringBuilder batch = new StringBuilder();
+
+    /**
+     * Creates a sink over a stream
+     * @param stream stream to write to
+     */
+    public StreamSink(PrintStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void append(Long timeMillis, LogLevel level, LogCategory category, String message) {
+        this.batch.append(message).append(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() {
+        // A whole batch is written at once, instead of taking the lock of the stream once per line
+        this.stream.print(this.batch);
+        this.stream.flush();
+        this.batch.setLength(0);
+    }
+}
@@ -12,6 +12,8 @@ import static cr.ac.tec.ce3104.resources.Animation.CRAB_ANIMATION;
 public class EnemyMoving implements Mode{
     private static final Integer SPEED_NUMERATOR = 7;
     private static final Integer SPEED_NUMERATOR_LIST = 2;
+    private static final SpeedTable SPEEDS = new SpeedTable(SPEED_NUMERATOR, Orientation.HORIZONTAL);
+    private static final SpeedTable SPEEDS_LIST = new SpeedTable(SPEED_NUMERATOR_LIST, Orientation.HORIZONTAL);
 
     private Integer moves = 0;
     private Boolean isList;
@@ -28,17 +30,8 @@ public class EnemyMoving implements Mode{
 
     @Override
     public Speed getSpeed() {
-        SpeedRatio ratio;
-        if(isList){
-            ratio = new SpeedRatio(EnemyMoving.SPEED_NUMERATOR_LIST, this.speedDenominator);
-        }
-        else{
-            ratio = new SpeedRatio(EnemyMoving.SPEED_NUMERATOR, this.speedDenominator);
-        }
-        if (this.direction == HorizontalDirection.LEFT) {
-            ratio = ratio.negate();
-        }
-        return Speed.horizontal(ratio);
+        SpeedTable speeds = this.isList ? EnemyMoving.SPEEDS_LIST : EnemyMoving.SPEEDS;
+        return speeds.get(this.speedDenominator, this.direction == HorizontalDirection.LEFT);
     }
 
     @Override
@@ -59,9 +52,9 @@ public class EnemyMoving implements Mode{
     public void onHit(GameObject enemy, Orientation orientation) {
         // If it hits, it changes direction
         this.direction = this.direction.invert();
-        this.speedDenominator = 10 - enemy.getPosition().getY()/32;
+        this.speedDenominator = 10 - enemy.getY()/32;
         moves = 0;
-        enemy.relocate(new Position(enemy.getPosition().getX(),enemy.getPosition().getY()+10));
+        enemy.relocate(enemy.getX(), enemy.getY() + 10);
         enemy.switchTo(this);
     }
 }
@@ -1,52 +1,60 @@
 package cr.ac.tec.ce3104.modes;
 
 import cr.ac.tec.ce3104.gameobjects.GameObject;
+import cr.ac.tec.ce3104.physics.Orientation;
 import cr.ac.tec.ce3104.physics.Speed;
-import cr.ac.tec.ce3104.physics.SpeedRatio;
+import cr.ac.tec.ce3104.physics.SpeedTable;
 import cr.ac.tec.ce3104.physics.VerticalDirection;
 import cr.ac.tec.ce3104.resources.Sequence;
 import cr.ac.tec.ce3104.resources.Sprite;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import static cr.ac.tec.ce3104.resources.Animation.ENEMY_SHOT_ANIMATION;
 
 public class EnemyShotMoving implements Mode{
 
     private static final Integer SPEED_NUMERATOR = 4;
+    private static final SpeedTable SPEEDS = new SpeedTable(SPEED_NUMERATOR, Orientation.VERTICAL);
     private VerticalDirection direction = VerticalDirection.DOWN;
     private Integer speedDenominator;
+    private Sequence sequence;
+    private SplittableRandom random;
 
     /**
      * Constructor of the class.
      * @param speedDenominator
+     * @param random source of randomness of the game
      */
-    public EnemyShotMoving(Integer speedDenominator) {
+    public EnemyShotMoving(Integer speedDenominator, SplittableRandom random) {
+        this.random = random;
+        this.reset(speedDenominator);
+    }
+
+    /**
+     * Puts the mode back to how a new one starts, so that a recycled shot can reuse it. The sprite is chosen
+     * here, once per shot, instead of every time the sequence is read
+     * @param speedDenominator number of ticks between moves
+     */
+    public void reset(Integer speedDenominator) {
+        this.direction = VerticalDirection.DOWN;
         this.speedDenominator = speedDenominator;
+        this.sequence = this.random.nextInt(3) == 0 ? Sprite.SHOT2 : Sprite.SHOT3;
     }
 
     @Override
     public Speed getSpeed() {
-        SpeedRatio ratio = new SpeedRatio(EnemyShotMoving.SPEED_NUMERATOR, this.speedDenominator);
-        return Speed.vertical(ratio);
+        return EnemyShotMoving.SPEEDS.get(this.speedDenominator, this.direction == VerticalDirection.UP);
     }
 
     @Override
     public Sequence getSequence()  {
-        Random rand = new Random();
-        Integer randomSprite = rand.nextInt(3);
-
-        if(randomSprite == 0){
-            return Sprite.SHOT2;
-        }else{
-            return Sprite.SHOT3;
-        }
-
+        return this.sequence;
     }
 
     @Override
     public void onRelocate(GameObject playershot) {
-        if (playershot.getPosition().getY() > 260) {
+        if (playershot.getY() > 260) {
             playershot.delete();
         }
     }
@@ -0,0 +1,27 @@
+package cr.ac.tec.ce3104.modes;
+
+import cr.ac.tec.ce3104.physics.Speed;
+import cr.ac.tec.ce3104.resources.Sequence;
+
+// Mode of an enemy that is part of a formation, it stays still relative to the formation, which is what moves
+public class InFormation implements Mode {
+    private Sequence sequence;
+
+    /**
+     * Creates the mode of a formation member
+     * @param sequence animation of the member
+     */
+    public InFormation(Sequence sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public Speed getSpeed() {
+        return Speed.stationary();
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return this.sequence;
+    }
+}
@@ -11,6 +11,8 @@ import cr.ac.tec.ce3104.resources.Sprite;
 // The player moves
 public class PlayerMoving implements ControllableMode {
     private static final SpeedRatio SPEED_RATIO = new SpeedRatio(6, 3);
+    private static final Speed SPEED_RIGHT = Speed.horizontal(SPEED_RATIO);
+    private static final Speed SPEED_LEFT = Speed.horizontal(SPEED_RATIO.negate());
     private HorizontalDirection direction;
 
     /**
@@ -23,12 +25,7 @@ public class PlayerMoving implements ControllableMode {
 
     @Override
     public Speed getSpeed() {
-        SpeedRatio ratio = PlayerMoving.SPEED_RATIO;
-        if (this.direction == HorizontalDirection.LEFT) {
-            ratio = ratio.negate();
-        }
-
-        return Speed.horizontal(ratio);
+        return this.direction == HorizontalDirection.LEFT ? PlayerMoving.SPEED_LEFT : PlayerMoving.SPEED_RIGHT;
     }
 
     @Override
@@ -1,29 +1,35 @@
 package cr.ac.tec.ce3104.modes;
 
 import cr.ac.tec.ce3104.gameobjects.GameObject;
+import cr.ac.tec.ce3104.physics.Orientation;
 import cr.ac.tec.ce3104.physics.Speed;
-import cr.ac.tec.ce3104.physics.SpeedRatio;
+import cr.ac.tec.ce3104.physics.SpeedTable;
 import cr.ac.tec.ce3104.physics.VerticalDirection;
 import cr.ac.tec.ce3104.resources.Sequence;
 import cr.ac.tec.ce3104.resources.Sprite;
 
 public class PlayerShotMoving implements Mode{
     private static final Integer SPEED_NUMERATOR = 4;
+    private static final SpeedTable SPEEDS = new SpeedTable(SPEED_NUMERATOR, Orientation.VERTICAL);
     private VerticalDirection direction = VerticalDirection.UP;
     private Integer speedDenominator;
 
     public PlayerShotMoving(Integer speedDenominator) {
+        this.reset(speedDenominator);
+    }
+
+    /**
+     * Puts the mode back to how a new one starts, so that a recycled shot can reuse it
+     * @param speedDenominator number of ticks between moves
+     */
+    public void reset(Integer speedDenominator) {
+        this.direction = VerticalDirection.UP;
         this.speedDenominator = speedDenominator;
     }
 
     @Override
     public Speed getSpeed() {
-        SpeedRatio ratio = new SpeedRatio(PlayerShotMoving.SPEED_NUMERATOR, this.speedDenominator);
-        if (this.direction == VerticalDirection.UP) {
-            ratio = ratio.negate();
-        }
-
-        return Speed.vertical(ratio);
+        return PlayerShotMoving.SPEEDS.get(this.speedDenominator, this.direction == VerticalDirection.UP);
     }
 
     @Override
@@ -33,7 +39,7 @@ public class PlayerShotMoving implements Mode{
 
     @Override
     public void onRelocate(GameObject playershot) {
-        if (playershot.getPosition().getY() < -20) {
+        if (playershot.getY() < -20) {
             playershot.delete();
         }
     }
@@ -2,13 +2,15 @@ package cr.ac.tec.ce3104.modes;
 
 import cr.ac.tec.ce3104.gameobjects.GameObject;
 import cr.ac.tec.ce3104.physics.HorizontalDirection;
+import cr.ac.tec.ce3104.physics.Orientation;
 import cr.ac.tec.ce3104.physics.Speed;
-import cr.ac.tec.ce3104.physics.SpeedRatio;
+import cr.ac.tec.ce3104.physics.SpeedTable;
 import cr.ac.tec.ce3104.resources.Sequence;
 import cr.ac.tec.ce3104.resources.Sprite;
 
 public class SaucerMoving implements Mode{
     private static final Integer SPEED_NUMERATOR = 4;
+    private static final SpeedTable SPEEDS = new SpeedTable(SPEED_NUMERATOR, Orientation.HORIZONTAL);
 
     private HorizontalDirection direction;
     private Integer speedDenominator;
@@ -20,11 +22,7 @@ public class SaucerMoving implements Mode{
 
     @Override
     public Speed getSpeed() {
-        SpeedRatio ratio = new SpeedRatio(SaucerMoving.SPEED_NUMERATOR, this.speedDenominator);
-        if (this.direction == HorizontalDirection.LEFT) {
-            ratio = ratio.negate();
-        }
-        return Speed.horizontal(ratio);
+        return SaucerMoving.SPEEDS.get(this.speedDenominator, this.direction == HorizontalDirection.LEFT);
     }
 
     @Override
@@ -34,7 +32,7 @@ public class SaucerMoving implements Mode{
 
     @Override
     public void onRelocate(GameObject saucer) {
-        if (saucer.getPosition().getX() < -20 || saucer.getPosition().getX() > 260) {
+        if (saucer.getX() < -20 || saucer.getX() > 260) {
             saucer.delete();
         }
     }
@@ -0,0 +1,254 @@
+package cr.ac.tec.ce3104.physics;
+
+import java.util.Arrays;
+
+import cr.ac.tec.ce3104.gameobjects.GameObject;
+
+// Physical state of the entities of a game, kept in parallel primitive arrays indexed by a dense slot so that
+// movement and collision loops neither unbox nor allocate. Game objects are handles to their slot
+public class EntityStore {
+    private static final Integer INITIAL_CAPACITY = 64;
+    private static final Dynamics[] DYNAMICS = Dynamics.values();
+
+    private int count = 0;
+    private GameObject[] handles = new GameObject[INITIAL_CAPACITY];
+
+    // Collision box
+    private int[] x = new int[INITIAL_CAPACITY];
+    private int[] y = new int[INITIAL_CAPACITY];
+    private int[] width = new int[INITIAL_CAPACITY];
+    private int[] height = new int[INITIAL_CAPACITY];
+
+    // Speed, as distance per number of ticks along each axis
+    private int[] numeratorX = new int[INITIAL_CAPACITY];
+    private int[] denominatorX = new int[INITIAL_CAPACITY];
+    private int[] numeratorY = new int[INITIAL_CAPACITY];
+    private int[] denominatorY = new int[INITIAL_CAPACITY];
+
+    // Ordinal of the entity's `Dynamics`
+    private int[] dynamics = new int[INITIAL_CAPACITY];
+
+    /**
+     * Gives an entity a slot, which from then on holds its physical state
+     * @param object entity to store
+     */
+    public void attach(GameObject object) {
+        if (this.count == this.handles.length) {
+            this.grow();
+        }
+
+        int slot = this.count++;
+        this.handles[slot] = object;
+
+        Position position = object.getPosition();
+        this.x[slot] = position.getX();
+        this.y[slot] = position.getY();
+
+        object.bind(this, slot);
+        this.refresh(object);
+    }
+
+    /**
+     * Frees the slot of an entity. The last slot takes its place, so that slots stay dense.
+     * Entities that are not stored here are ignored
+     * @param object entity to remove
+     */
+    public void release(GameObject object) {
+        Integer slot = object.getSlot();
+        if (slot == null || this.handles[slot] != object) {
+            return;
+        }
+
+        object.unbind();
+
+        int last = --this.count;
+        if (slot != last) {
+            this.copySlot(last, slot);
+            this.handles[slot].bind(this, slot);
+        }
+
+        this.handles[last] = null;
+    }
+
+    /**
+     * Frees every slot
+     */
+    public void clear() {
+        for (int slot = 0; slot < this.count; ++slot) {
+            this.handles[slot].unbind();
+            this.handles[slot] = null;
+        }
+
+        this.count = 0;
+    }
+
+    /**
+     * Reloads the size, speed and dynamics of an entity from its mode, after it changed
+     * @param object stored entity
+     */
+    public void refresh(GameObject object) {
+        int slot = object.getSlot();
+        this.dynamics[slot] = object.getDynamics().ordinal();
+
+        Size size = object.getSize();
+        this.width[slot] = size.getWidth();
+        this.height[slot] = size.getHeight();
+
+        Speed speed = object.getMode().getSpeed();
+        this.numeratorX[slot] = speed.getX().getNumerator();
+        this.denominatorX[slot] = speed.getX().getDenominator();
+        this.numeratorY[slot] = speed.getY().getNumerator();
+        this.denominatorY[slot] = speed.getY().getDenominator();
+    }
+
+    /**
+     * Moves a stored entity
+     * @param slot slot of the entity
+     * @param x new horizontal coordinate
+     * @param y new vertical coordinate
+     */
+    public void setPosition(int slot, int x, int y) {
+        this.x[slot] = x;
+        this.y[slot] = y;
+    }
+
+    /**
+     * Indicates whether the collision box of a stored entity overlaps a box
+     * @param slot slot of the entity
+     * @param x horizontal coordinate of the box
+     * @param y vertical coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @return true if the boxes overlap, false otherwise
+     */
+    public boolean intersects(int slot, int x, int y, int width, int height) {
+        return this.x[slot] < x + width && x < this.x[slot] + this.width[slot]
+                && this.y[slot] < y + height && y < this.y[slot] + this.height[slot];
+    }
+
+    /**
+     * Computes where a coordinate moves on a tick, given its speed along that axis. Distances of zero still
+     * move one unit, as clients do
+     * @param coordinate current coordinate
+     * @param numerator distance moved each time
+     * @param denominator number of ticks between moves, 0 for none
+     * @param tick current tick
+     * @return coordinate after the tick
+     */
+    public static int advance(int coordinate, int numerator, int denominator, int tick) {
+        if (denominator <= 0 || tick % denominator != 0) {
+            return coordinate;
+        }
+
+        int jump = Math.max(1, Math.abs(numerator));
+        return numerator > 0 ? coordinate + jump : coordinate - jump;
+    }
+
+    /**
+     * Gets how many entities are stored, which is also the first free slot
+     * @return number of stored entities
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the entity that owns a slot
+     * @param slot slot
+     * @return entity handle
+     */
+    public GameObject getHandle(int slot) {
+        return this.handles[slot];
+    }
+
+    /**
+     * @param slot slot of the entity
+     * @return horizontal coordinate
+     */
+    public int getX(int slot) {
+        return this.x[slot];
+    }
+
+    /**
+     * @param slot slot of the entity
+     * @return vertical coordinate
+     */
+    public int getY(int slot) {
+        return this.y[slot];
+    }
+
+    /**
+     * @param slot slot of the entity
+     * @return horizontal distance moved each time
+     */
+    public int getNumeratorX(int slot) {
+        return this.numeratorX[slot];
+    }
+
+    /**
+     * @param slot slot of the entity
+     * @return ticks between horizontal moves
+     */
+    public int getDenominatorX(int slot) {
+        return this.denominatorX[slot];
+    }
+
+    /**
+     * @param slot slot of the entity
+     * @return vertical distance moved each time
+     */
+    public int getNumeratorY(int slot) {
+        return this.numeratorY[slot];
+    }
+
+    /**
+     * @param slot slot of the entity
+     * @return ticks between vertical moves
+     */
+    public int getDenominatorY(int slot) {
+        return this.denominatorY[slot];
+    }
+
+    /**
+     * @param slot slot of the entity
+     * @return type of collisions that can be had with the entity
+     */
+    public Dynamics getDynamics(int slot) {
+        return DYNAMICS[this.dynamics[slot]];
+    }
+
+    /**
+     * Copies the state of a slot into another one
+     * @param from source slot
+     * @param to destination slot
+     */
+    private void copySlot(int from, int to) {
+        this.handles[to] = this.handles[from];
+        this.x[to] = this.x[from];
+        this.y[to] = this.y[from];
+        this.width[to] = this.width[from];
+        this.height[to] = this.height[from];
+        this.numeratorX[to] = this.numeratorX[from];
+        this.denominatorX[to] = this.denominatorX[from];
+        this.numeratorY[to] = this.numeratorY[from];
+        this.denominatorY[to] = this.denominatorY[from];
+        this.dynamics[to] = this.dynamics[from];
+    }
+
+    /**
+     * Doubles the capacity of every array
+     */
+    private void grow() {
+        int capacity = this.handles.length * 2;
+        this.handles = Arrays.copyOf(this.handles, capacity);
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.width = Arrays.copyOf(this.width, capacity);
+        this.height = Arrays.copyOf(this.height, capacity);
+        this.numeratorX = Arrays.copyOf(this.numeratorX, capacity);
+        this.denominatorX = Arrays.copyOf(this.denominatorX, capacity);
+        this.numeratorY = Arrays.copyOf(this.numeratorY, capacity);
+        this.denominatorY = Arrays.copyOf(this.denominatorY, capacity);
+        this.dynamics = Arrays.copyOf(this.dynamics, capacity);
+    }
+}
@@ -1,59 +1,59 @@
 package cr.ac.tec.ce3104.physics;
 
-import java.util.Collection;
-
 import cr.ac.tec.ce3104.levels.Level;
 import cr.ac.tec.ce3104.gameobjects.GameObject;
+import cr.ac.tec.ce3104.resources.SpriteMask;
 
-// Collect the implications of hypothetically moving an entity to a position, such as collisions
+// Collect the implications of hypothetically moving an entity to a position, such as collisions. A game tests
+// every move through the same instance, so the box and results are kept as primitives and nothing is allocated
 public class Placement {
+    private final int areaWidth;
+    private final SpatialGrid scene;
+
     private GameObject placed;
-    private Bounds bounds;
+    private int x;
+    private int y;
+    private int width;
+    private int height;
     private Orientation hitOrientation = null;
-    private Integer bestDistanceSquare = null;
+    private int bestDistanceSquare = Integer.MAX_VALUE;
     private GameObject interactionTarget = null;
-    private Boolean correct;
 
     /**
-     * Create an object that provides information about the position of an entity on the playing field
-     * @param placed reference to the game entity
-     * @param placedAt position in which the entity is located
+     * Create an object that tests positions of entities on the playing field
      * @param level level associated with entities
-     * @param scene collection of objects that make up the current game scene
+     * @param scene index of the objects that make up the current game scene
      */
-    public Placement(GameObject placed, Position placedAt, Level level, Collection<GameObject> scene) {
-        this(placed, placedAt, level, scene, true);
+    public Placement(Level level, SpatialGrid scene) {
+        this.areaWidth = level.getGameAreaSize().getWidth();
+        this.scene = scene;
     }
 
     /**
-     * Create an object that provides information about the position of an entity on the playing field
+     * Tests an entity at a position, replacing the results of the previous test
      * @param placed reference to the game entity
-     * @param placedAt position in which the entity is located
-     * @param level level associated with entities
-     * @param scene collection of objects that make up the current game scene
-     * @param correct indicates if the position of the entity is correct
+     * @param x horizontal coordinate in which the entity would be
+     * @param y vertical coordinate in which the entity would be
+     * @return this placement, describing collision aspects of that position
      */
-    public Placement(GameObject placed, Position placedAt, Level level, Collection<GameObject> scene, Boolean correct) {
-        this(placed, new Bounds(placedAt, placed.getSize()), level, scene, correct);
-    }
+    public Placement test(GameObject placed, int x, int y) {
+        Size size = placed.getSize();
 
-    /**
-     * Create an object that provides information about the position of an entity on the playing field
-     * @param placed reference to the game entity
-     * @param bounds collision box associated to the entity
-     * @param level level associated with entities
-     * @param scene collection of objects that make up the current game scene
-     * @param correct indicates if the position of the entity is correct
-     */
-    private Placement(GameObject placed, Bounds bounds, Level level, Collection<GameObject> scene, Boolean correct) {
         this.placed = placed;
-        this.bounds = bounds;
-        this.correct = correct;
-
-        this.testWalls(level.getGameAreaSize());
+        this.x = x + placed.getBoxOffsetX();
+        this.y = y + placed.getBoxOffsetY();
+        this.width = size.getWidth();
+        this.height = size.getHeight();
+        this.hitOrientation = null;
+        this.bestDistanceSquare = Integer.MAX_VALUE;
+        this.interactionTarget = null;
+
+        this.testWalls();
         if (placed.getDynamics() != Dynamics.FLOATING) {
-            this.testCollisions(scene);
+            this.testCollisions();
         }
+
+        return this;
     }
 
     /**
@@ -74,30 +74,31 @@ public class Placement {
 
     /**
      * Test if there are collisions against limits of the game screen
-     * @param gameAreaSize dimensions of the playing area, given as a virtual resolution
      */
-    private void testWalls(Size gameAreaSize) {
-        Integer areaWidth = gameAreaSize.getWidth();
-        Integer areaHeight = gameAreaSize.getHeight();
-
-        Bounds leftWall = new Bounds(new Position(-1, 0), new Size(1, areaHeight));
-        Bounds rightWall = new Bounds(new Position(areaWidth, 0), new Size(1, areaHeight));
-
-        // Collisions with inherent map walls
-        if (!this.bounds.rightOf(leftWall) || !this.bounds.leftOf(rightWall)) {
+    private void testWalls() {
+        // Collisions with inherent map walls, which are right outside of the game area
+        if (this.x < 0 || this.x + this.width > this.areaWidth) {
             this.tryHitOrientation(Orientation.HORIZONTAL);
         }
     }
 
     /**
      * Check for collisions against the other entities present in the current game scene
-     * @param scene collection of entities that make up the level currently drawn on the screen
      */
-    private void testCollisions(Collection<GameObject> scene) {
-        // look for collisions
-        for (GameObject other : scene) {
-            Bounds otherBounds = other.getBounds();
-            if (other == this.placed || !this.bounds.collidesWith(otherBounds)) {
+    private void testCollisions() {
+        SpriteMask mask = this.placed.getMask();
+
+        // look for collisions, only among the entities that are close enough to matter
+        for (GameObject other : this.scene.query(this.x, this.y, this.width, this.height)) {
+            if (other == this.placed || !other.intersects(this.x, this.y, this.width, this.height)
+                    || !other.overlaps(this.x, this.y, this.width, this.height)) {
+                continue;
+            }
+
+            // Boxes that only touch through transparent pixels do not collide
+            Size otherSize = other.getSize();
+            if (!SpriteMask.collide(mask, this.x, this.y, this.width, this.height, other.getMask(), other.getX(),
+                    other.getY(), otherSize.getWidth(), otherSize.getHeight())) {
                 continue;
             }
 
@@ -128,11 +129,11 @@ public class Placement {
      */
     private void tryInteractionTarget(GameObject other) {
         // The closest target is always preferred
-        Integer deltaX = other.getPosition().getX() - this.bounds.getOrigin().getX();
-        Integer deltaY = other.getPosition().getY() - this.bounds.getOrigin().getY();
-        Integer distanceSquare = deltaX * deltaX + deltaY * deltaY;
+        int deltaX = other.getX() - this.x;
+        int deltaY = other.getY() - this.y;
+        int distanceSquare = deltaX * deltaX + deltaY * deltaY;
 
-        if (other.isDangerous() || this.bestDistanceSquare == null || distanceSquare <= this.bestDistanceSquare) {
+        if (other.isDangerous() || distanceSquare <= this.bestDistanceSquare) {
             this.bestDistanceSquare = distanceSquare;
             this.interactionTarget = other;
         }
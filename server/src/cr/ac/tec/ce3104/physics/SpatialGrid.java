@@ -0,0 +1,191 @@
+package cr.ac.tec.ce3104.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import cr.ac.tec.ce3104.gameobjects.GameObject;
+
+// Uniform grid over the game area, used to find the entities near a box without looking at every other entity
+public class SpatialGrid {
+    // Sprites are at most 16 pixels wide, so most entities are indexed under one to four cells
+    private static final Integer CELL_SIZE = 16;
+
+    private final Integer columns;
+    private final Integer rows;
+    private final List<List<GameObject>> cells = new ArrayList<>();
+
+    // Cells each entity is currently indexed under, as {first column, first row, last column, last row}
+    private final HashMap<Integer, int[]> indexed = new HashMap<>();
+
+    // A stable order keeps collision outcomes independent of how entities were indexed
+    private static final Comparator<GameObject> BY_ID = (a, b) -> Integer.compare(a.getId(), b.getId());
+
+    // Reused by every query, so that collision tests do not allocate. Entities found by the current query are
+    // marked with its stamp, by store slot, so that those spanning several cells are only listed once
+    private final ArrayList<GameObject> candidates = new ArrayList<>();
+    private final int[] queryRange = new int[4];
+    private final int[] updateRange = new int[4];
+    private int[] stamps = new int[64];
+    private int stamp = 0;
+
+    /**
+     * Creates an empty grid that covers a game area. Entities outside of it are kept in the border cells
+     * @param area dimensions of the game area
+     */
+    public SpatialGrid(Size area) {
+        this.columns = Math.max(1, (area.getWidth() + CELL_SIZE - 1) / CELL_SIZE);
+        this.rows = Math.max(1, (area.getHeight() + CELL_SIZE - 1) / CELL_SIZE);
+
+        for (int i = 0; i < this.columns * this.rows; ++i) {
+            this.cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Indexes an entity at its current bounds
+     * @param object entity to index
+     */
+    public void insert(GameObject object) {
+        int[] range = this.rangeOf(object.getBounds());
+        this.indexed.put(object.getId(), range);
+        this.forEachCell(range, cell -> cell.add(object));
+    }
+
+    /**
+     * Stops indexing an entity. Unknown entities are ignored
+     * @param object entity to remove
+     */
+    public void remove(GameObject object) {
+        int[] range = this.indexed.remove(object.getId());
+        if (range != null) {
+            this.forEachCell(range, cell -> cell.remove(object));
+        }
+    }
+
+    /**
+     * Moves an entity to the cells of its current bounds, after it was relocated or its size changed.
+     * Unknown entities are ignored
+     * @param object entity to update
+     */
+    public void update(GameObject object) {
+        int[] previous = this.indexed.get(object.getId());
+        if (previous == null) {
+            return;
+        }
+
+        // Most moves stay within the same cells, so the new range is computed into a scratch array and only
+        // copied over the indexed one when it changed
+        Size size = object.getSize();
+        int[] range = this.rangeOf(object.getX() + object.getBoxOffsetX(), object.getY() + object.getBoxOffsetY(),
+                size.getWidth(), size.getHeight(), this.updateRange);
+        if (!Arrays.equals(previous, range)) {
+            this.forEachCell(previous, cell -> cell.remove(object));
+            this.forEachCell(range, cell -> cell.add(object));
+            System.arraycopy(range, 0, previous, 0, range.length);
+        }
+    }
+
+    /**
+     * Removes every entity
+     */
+    public void clear() {
+        for (List<GameObject> cell : this.cells) {
+            cell.clear();
+        }
+
+        this.indexed.clear();
+    }
+
+    /**
+     * Finds the entities indexed under any of the cells a box overlaps. They may not actually collide with it
+     * @param x horizontal coordinate of the box
+     * @param y vertical coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @return candidate entities, each one once and ordered by id. The list is reused by the next query
+     */
+    public List<GameObject> query(int x, int y, int width, int height) {
+        this.candidates.clear();
+        if (++this.stamp == 0) {
+            // Wrapped around, older stamps could be mistaken for the current one
+            Arrays.fill(this.stamps, 0);
+            this.stamp = 1;
+        }
+
+        int[] range = this.rangeOf(x, y, width, height, this.queryRange);
+        for (int row = range[1]; row <= range[3]; ++row) {
+            for (int column = range[0]; column <= range[2]; ++column) {
+                List<GameObject> cell = this.cells.get(row * this.columns + column);
+                for (int i = 0; i < cell.size(); ++i) {
+                    GameObject object = cell.get(i);
+                    int slot = object.getSlot();
+                    if (slot >= this.stamps.length) {
+                        this.stamps = Arrays.copyOf(this.stamps, Math.max(slot + 1, this.stamps.length * 2));
+                    }
+
+                    if (this.stamps[slot] != this.stamp) {
+                        this.stamps[slot] = this.stamp;
+                        this.candidates.add(object);
+                    }
+                }
+            }
+        }
+
+        this.candidates.sort(BY_ID);
+        return this.candidates;
+    }
+
+    /**
+     * Computes which cells a box overlaps
+     * @param bounds box
+     * @return cell range as {first column, first row, last column, last row}
+     */
+    private int[] rangeOf(Bounds bounds) {
+        return this.rangeOf(bounds.getOrigin().getX(), bounds.getOrigin().getY(), bounds.getSize().getWidth(),
+                bounds.getSize().getHeight(), new int[4]);
+    }
+
+    /**
+     * Computes which cells a box overlaps, into an existing array
+     * @param x horizontal coordinate of the box
+     * @param y vertical coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @param range where the range is stored
+     * @return the given array, holding {first column, first row, last column, last row}
+     */
+    private int[] rangeOf(int x, int y, int width, int height, int[] range) {
+        range[0] = this.clamp(Math.floorDiv(x, CELL_SIZE), this.columns);
+        range[1] = this.clamp(Math.floorDiv(y, CELL_SIZE), this.rows);
+        range[2] = this.clamp(Math.floorDiv(x + Math.max(1, width) - 1, CELL_SIZE), this.columns);
+        range[3] = this.clamp(Math.floorDiv(y + Math.max(1, height) - 1, CELL_SIZE), this.rows);
+        return range;
+    }
+
+    /**
+     * Restricts a cell coordinate to the grid
+     * @param cell cell coordinate
+     * @param count number of cells along the axis
+     * @return coordinate of the nearest existing cell
+     */
+    private int clamp(int cell, int count) {
+        return Math.max(0, Math.min(count - 1, cell));
+    }
+
+    /**
+     * Runs an action on every cell of a range
+     * @param range cell range as {first column, first row, last column, last row}
+     * @param action action to run
+     */
+    private void forEachCell(int[] range, Consumer<List<GameObject>> action) {
+        for (int row = range[1]; row <= range[3]; ++row) {
+            for (int column = range[0]; column <= range[2]; ++column) {
+                action.accept(this.cells.get(row * this.columns + column));
+            }
+        }
+    }
+}
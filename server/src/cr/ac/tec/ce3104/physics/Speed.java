@@ -2,15 +2,18 @@ package cr.ac.tec.ce3104.physics;
 
 // Velocity(x,y)
 public class Speed {
-    private SpeedRatio x;
-    private SpeedRatio y;
+    // Speeds are immutable, so every stationary entity shares this one
+    private static final Speed STATIONARY = new Speed(SpeedRatio.stationary(), SpeedRatio.stationary());
+
+    private final SpeedRatio x;
+    private final SpeedRatio y;
 
     /**
-     * Creates an instance of velocity that represents a steady state
-     * @return instance of Speed for steady state
+     * Gets the velocity that represents a steady state
+     * @return shared instance of Speed for steady state
      */
     public static Speed stationary() {
-        return new Speed(SpeedRatio.stationary(), SpeedRatio.stationary());
+        return STATIONARY;
     }
 
     /**
@@ -2,20 +2,17 @@ package cr.ac.tec.ce3104.physics;
 
 // One-dimensional velocity expressed as distance/time fraction
 public class SpeedRatio {
-    private Integer numerator = 0;
-    private Integer denominator = 0;
+    private static final SpeedRatio STATIONARY = new SpeedRatio(0, 0);
 
-    /**
-     * constructor used for zero velocity representations
-     */
-    private SpeedRatio() {}
+    private final Integer numerator;
+    private final Integer denominator;
 
     /**
-     * Create a velocity representation for a stationary object
-     * @return speed for stationary object
+     * Gets the velocity representation for a stationary object
+     * @return shared speed for stationary object
      */
     public static SpeedRatio stationary() {
-        return new SpeedRatio();
+        return STATIONARY;
     }
 
     /**
@@ -0,0 +1,55 @@
+package cr.ac.tec.ce3104.physics;
+
+// Preallocated speeds of one numerator along one axis, for both directions and every common denominator, so that
+// modes can report their speed without building a new one on each query
+public class SpeedTable {
+    // Denominators above this are rare enough to be built when asked for
+    private static final Integer MAX_DENOMINATOR = 16;
+
+    private final Integer numerator;
+    private final Orientation axis;
+
+    // Speeds by denominator, moving towards positive and negative coordinates
+    private final Speed[] positive = new Speed[MAX_DENOMINATOR + 1];
+    private final Speed[] negative = new Speed[MAX_DENOMINATOR + 1];
+
+    /**
+     * Creates the speeds of a numerator along an axis
+     * @param numerator amount of movement
+     * @param axis axis along which the movement happens
+     */
+    public SpeedTable(Integer numerator, Orientation axis) {
+        this.numerator = numerator;
+        this.axis = axis;
+
+        for (Integer denominator = 1; denominator <= MAX_DENOMINATOR; ++denominator) {
+            this.positive[denominator] = this.build(numerator, denominator);
+            this.negative[denominator] = this.build(-numerator, denominator);
+        }
+    }
+
+    /**
+     * Gets the speed for a denominator and direction
+     * @param denominator amount of time
+     * @param negated true to move towards negative coordinates
+     * @return shared speed, or a new one if the denominator is out of range
+     */
+    public Speed get(Integer denominator, Boolean negated) {
+        if (denominator < 1 || denominator > MAX_DENOMINATOR) {
+            return this.build(negated ? -this.numerator : this.numerator, denominator);
+        }
+
+        return negated ? this.negative[denominator] : this.positive[denominator];
+    }
+
+    /**
+     * Builds a speed along the axis of the table
+     * @param numerator signed amount of movement
+     * @param denominator amount of time
+     * @return new speed
+     */
+    private Speed build(Integer numerator, Integer denominator) {
+        SpeedRatio ratio = new SpeedRatio(numerator, denominator);
+        return this.axis == Orientation.HORIZONTAL ? Speed.horizontal(ratio) : Speed.vertical(ratio);
+    }
+}
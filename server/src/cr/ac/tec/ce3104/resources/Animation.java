@@ -2,8 +2,9 @@ package cr.ac.tec.ce3104.resources;
 
 // A sequence of several looping sprites
 public class Animation extends Sequence{
-    // Sprite sequence
+    // Sprite sequence and the ids of its sprites
     private Sprite[] sprites;
+    private int[] ids;
 
     // Enemy animations
     public static final Animation SQUID_ANIMATION   = new Animation(0, 1);
@@ -12,20 +13,31 @@ public class Animation extends Sequence{
 
     public static final Animation ENEMY_SHOT_ANIMATION = new Animation(11, 12);
 
+    // Nothing to draw, for entities that clients never render by themselves
+    public static final Animation NONE = new Animation();
+
     // Gets the sprites
     @Override
     public Sprite[] getSprites() {
         return this.sprites;
     }
 
+    // Gets the sprite ids
+    @Override
+    public int[] getSpriteIds() {
+        return this.ids;
+    }
+
     /**
      * Creates an animation instance from a list of sprite image ids
      * @param spriteIds initialization list with the identifiers of the sprites that make up the animation
      */
     private Animation(Integer... spriteIds) {
         this.sprites = new Sprite[spriteIds.length];
+        this.ids = new int[spriteIds.length];
         for (Integer i = 0; i < spriteIds.length; ++i) {
             this.sprites[i] = Sprite.byId(spriteIds[i]);
+            this.ids[i] = spriteIds[i];
         }
     }
 }
@@ -15,10 +15,18 @@ public class Assets {
     public static File[] listSpritePaths() throws IOException {
         ArrayList<File> paths = new ArrayList<>();
 
-        for (File category : new File("../assets/sprites").listFiles()) {
+        for (File category : new File("../assets/sprites").listFiles(File::isDirectory)) {
             paths.addAll(Arrays.asList(category.listFiles()));
         }
 
         return paths.toArray(new File[0]);
     }
+
+    /**
+     * Gets where the sprite manifest is kept, next to the sprite images
+     * @return path of the sprite manifest file, which may not exist
+     */
+    public static File getSpriteManifestPath() {
+        return new File("../assets/sprites/manifest.properties");
+    }
 }
@@ -4,12 +4,22 @@ import cr.ac.tec.ce3104.physics.Size;
 
 // A sequence of sprites, used to animate entities
 public abstract class Sequence {
+    // Combined mask of every sprite, built on first use
+    private SpriteMask mask = null;
+    private Boolean maskBuilt = false;
+
     /**
      * Gets the list of sprites that make up the sequence
-     * @return array containing the sprites that make up the sequence
+     * @return shared array containing the sprites that make up the sequence, must not be modified
      */
     public abstract Sprite[] getSprites();
 
+    /**
+     * Gets the ids of the sprites that make up the sequence, as sent to clients
+     * @return shared array of sprite ids, must not be modified
+     */
+    public abstract int[] getSpriteIds();
+
     /**
      * Gets the dimension of the sprites in the sequence
      * @return dimension of the sequence sprites
@@ -25,4 +35,17 @@ public abstract class Sequence {
     public Sprite freeze() {
         return this.getSprites()[0];
     }
+
+    /**
+     * Gets which pixels are opaque in any sprite of the sequence, so that every frame collides the same way
+     * @return alpha mask, or null if some sprite has none
+     */
+    public SpriteMask getMask() {
+        if (!this.maskBuilt) {
+            this.mask = SpriteMask.union(this.getSprites());
+            this.maskBuilt = true;
+        }
+
+        return this.mask;
+    }
 }
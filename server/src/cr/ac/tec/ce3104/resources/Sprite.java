@@ -1,10 +1,8 @@
 package cr.ac.tec.ce3104.resources;
 
+import cr.ac.tec.ce3104.physics.Bounds;
 import cr.ac.tec.ce3104.physics.Size;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 
@@ -39,21 +37,25 @@ public class Sprite extends Sequence{
     // known sprites
     private static HashMap<Integer, Sprite> sprites = null;
 
-    // Sprite id and size
+    // Sprite id, size and hitbox
     private Integer id;
+    private Sprite[] self;
+    private int[] ids;
     private Size size;
+    private Bounds hitbox;
+    private SpriteMask mask;
 
     /**
-     * Create a sprite instance from a file path
-     * @param path image file path
-     * @throws IOException error in case of problems opening image file
+     * Create a sprite instance from its manifest entry
+     * @param entry sprite metadata
      */
-    private Sprite(File path) throws IOException {
-        String filename = path.getName();
-        this.id = Integer.parseInt(filename.substring(0, filename.indexOf('-')));
-
-        BufferedImage image = ImageIO.read(path);
-        this.size = new Size(image.getWidth(), image.getHeight());
+    private Sprite(SpriteManifest entry) {
+        this.id = entry.getId();
+        this.self = new Sprite[] { this };
+        this.ids = new int[] { this.id };
+        this.size = entry.getSize();
+        this.hitbox = entry.getHitbox();
+        this.mask = entry.getMask();
     }
 
     /**
@@ -66,8 +68,8 @@ public class Sprite extends Sequence{
             Sprite.sprites = new HashMap<>();
 
             try {
-                for (File path : Assets.listSpritePaths()) {
-                    Sprite sprite = new Sprite(path);
+                for (SpriteManifest entry : SpriteManifest.load().values()) {
+                    Sprite sprite = new Sprite(entry);
                     Sprite.sprites.put(sprite.id, sprite);
                 }
             } catch (IOException exception) {
@@ -81,7 +83,13 @@ public class Sprite extends Sequence{
     // Gets this sprite in the form of an array of one
     @Override
     public Sprite[] getSprites() {
-        return new Sprite[] { this };
+        return this.self;
+    }
+
+    // Gets the id of this sprite in the form of an array of one
+    @Override
+    public int[] getSpriteIds() {
+        return this.ids;
     }
 
     // Gets the size of the sprite
@@ -90,6 +98,22 @@ public class Sprite extends Sequence{
         return this.size;
     }
 
+    /**
+     * Gets the part of the sprite that collides
+     * @return hitbox relative to the top left corner of the sprite
+     */
+    public Bounds getHitbox() {
+        return this.hitbox;
+    }
+
+    /**
+     * Gets which pixels of the sprite are opaque
+     * @return alpha mask, or null if the sprite is too wide for one
+     */
+    public SpriteMask getMask() {
+        return this.mask;
+    }
+
     /**
      * Gets the id associated with the current sprite instance
      * @return identifier of the image of the current sprite
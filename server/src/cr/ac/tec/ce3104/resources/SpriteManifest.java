@@ -0,0 +1,277 @@
+package cr.ac.tec.ce3104.resources;
+
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
+import cr.ac.tec.ce3104.physics.Bounds;
+import cr.ac.tec.ce3104.physics.Position;
+import cr.ac.tec.ce3104.physics.Size;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.TreeMap;
+
+// What the server needs to know about each sprite, cached in a properties file next to the images so that they do
+// not have to be decoded on startup. Each entry reads
+// `sprite.<id> = <category>/<file>,<file bytes>,<width>,<height>[,<hitbox x>,<hitbox y>,<hitbox width>,<hitbox height>]`
+// and, for sprites no wider than a mask row, `mask.<id> = <row 0>,<row 1>,...` with every row as hexadecimal bits
+public class SpriteManifest {
+    private static final String KEY_PREFIX = "sprite.";
+    private static final String MASK_PREFIX = "mask.";
+
+    // Sprite metadata
+    private Integer id;
+    private String category;
+    private String file;
+    private Long bytes;
+    private Size size;
+    private Bounds hitbox;
+    private SpriteMask mask;
+
+    /**
+     * Creates the metadata of a sprite
+     * @param id sprite id
+     * @param category directory of the image within the sprites folder
+     * @param file image file name
+     * @param bytes length of the image file, used to detect that it changed
+     * @param size dimensions of the image
+     * @param hitbox part of the image that collides, relative to its top left corner
+     * @param mask opaque pixels of the image, null if it is too wide for a mask
+     */
+    private SpriteManifest(Integer id, String category, String file, Long bytes, Size size, Bounds hitbox, SpriteMask mask) {
+        this.id = id;
+        this.category = category;
+        this.file = file;
+        this.bytes = bytes;
+        this.size = size;
+        this.hitbox = hitbox;
+        this.mask = mask;
+    }
+
+    /**
+     * Gets the metadata of every sprite. The manifest is used as long as it describes exactly the image files
+     * that are present, otherwise the images are scanned and the manifest is written again
+     * @return sprite metadata by id
+     * @throws IOException error that can occur while reading the images
+     */
+    public static HashMap<Integer, SpriteManifest> load() throws IOException {
+        File[] paths = Assets.listSpritePaths();
+        File manifestPath = Assets.getSpriteManifestPath();
+
+        if (manifestPath.isFile()) {
+            try {
+                HashMap<Integer, SpriteManifest> entries = SpriteManifest.read(manifestPath);
+                if (SpriteManifest.describes(entries, paths)) {
+                    return entries;
+                }
+            } catch (IOException | IllegalArgumentException exception) {
+                // Rebuilt below
+            }
+        }
+
+        Log.getInstance().info(LogCategory.SERVER, "[SERVER] Sprite manifest is missing or stale, scanning " + paths.length + " sprites");
+        HashMap<Integer, SpriteManifest> entries = SpriteManifest.scan(paths);
+
+        try {
+            SpriteManifest.write(entries, manifestPath);
+        } catch (IOException exception) {
+            // The server still works, it will just scan again next time
+            Log.getInstance().warn(LogCategory.SERVER, "[SERVER] Unable to write " + manifestPath + ": " + exception.getMessage());
+        }
+
+        return entries;
+    }
+
+    /**
+     * Parses a manifest file
+     * @param path manifest file
+     * @return sprite metadata by id
+     * @throws IOException error that can occur while reading the file
+     * @throws IllegalArgumentException if an entry is malformed
+     */
+    private static HashMap<Integer, SpriteManifest> read(File path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(path)) {
+            properties.load(reader);
+        }
+
+        HashMap<Integer, SpriteManifest> entries = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(KEY_PREFIX)) {
+                continue;
+            }
+
+            Integer id = Integer.parseInt(key.substring(KEY_PREFIX.length()));
+            String[] fields = properties.getProperty(key).split(",");
+            if (fields.length != 4 && fields.length != 8) {
+                throw new IllegalArgumentException("bad sprite manifest entry: " + key);
+            }
+
+            String[] location = fields[0].split("/");
+            Size size = new Size(Integer.parseInt(fields[2].trim()), Integer.parseInt(fields[3].trim()));
+
+            Bounds hitbox = null;
+            if (fields.length == 8) {
+                Position origin = new Position(Integer.parseInt(fields[4].trim()), Integer.parseInt(fields[5].trim()));
+                hitbox = new Bounds(origin, new Size(Integer.parseInt(fields[6].trim()), Integer.parseInt(fields[7].trim())));
+            }
+
+            SpriteMask mask = null;
+            String rows = properties.getProperty(MASK_PREFIX + id);
+            if (rows != null) {
+                String[] words = rows.split(",");
+                long[] bits = new long[words.length];
+                for (int y = 0; y < words.length; ++y) {
+                    bits[y] = Long.parseUnsignedLong(words[y].trim(), 16);
+                }
+
+                mask = new SpriteMask(bits);
+            } else if (size.getWidth() <= SpriteMask.MAX_WIDTH) {
+                throw new IllegalArgumentException("sprite manifest entry without a mask: " + key);
+            }
+
+            entries.put(id, new SpriteManifest(id, location[0].trim(), location[1].trim(), Long.parseLong(fields[1].trim()), size, hitbox, mask));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Checks that a manifest lists exactly the given image files, as they are now
+     * @param entries manifest entries
+     * @param paths image files
+     * @return true if the manifest is up to date, false otherwise
+     */
+    private static Boolean describes(HashMap<Integer, SpriteManifest> entries, File[] paths) {
+        if (entries.size() != paths.length) {
+            return false;
+        }
+
+        HashMap<String, Long> lengths = new HashMap<>();
+        for (File path : paths) {
+            lengths.put(path.getParentFile().getName() + "/" + path.getName(), path.length());
+        }
+
+        for (SpriteManifest entry : entries.values()) {
+            if (!entry.bytes.equals(lengths.get(entry.category + "/" + entry.file))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes every image to build the manifest from scratch
+     * @param paths image files
+     * @return sprite metadata by id
+     * @throws IOException error that can occur while reading an image
+     */
+    private static HashMap<Integer, SpriteManifest> scan(File[] paths) throws IOException {
+        HashMap<Integer, SpriteManifest> entries = new HashMap<>();
+        for (File path : paths) {
+            BufferedImage image = ImageIO.read(path);
+            Size size = new Size(image.getWidth(), image.getHeight());
+
+            // Pixels that are not fully transparent collide
+            SpriteMask mask = null;
+            Bounds hitbox = null;
+            if (image.getWidth() <= SpriteMask.MAX_WIDTH) {
+                long[] rows = new long[image.getHeight()];
+                for (int y = 0; y < image.getHeight(); ++y) {
+                    for (int x = 0; x < image.getWidth(); ++x) {
+                        if ((image.getRGB(x, y) >>> 24) != 0) {
+                            rows[y] |= 1L << x;
+                        }
+                    }
+                }
+
+                mask = new SpriteMask(rows);
+                hitbox = mask.getTightBounds();
+            }
+
+            Integer id = SpriteManifest.parseId(path);
+            entries.put(id, new SpriteManifest(id, path.getParentFile().getName(), path.getName(), path.length(), size, hitbox, mask));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Writes a manifest file, sorted by id
+     * @param entries sprite metadata by id
+     * @param path manifest file
+     * @throws IOException error that can occur while writing the file
+     */
+    private static void write(HashMap<Integer, SpriteManifest> entries, File path) throws IOException {
+        try (Writer writer = new FileWriter(path)) {
+            writer.write("# Generated by the server from the sprite images, it is rebuilt whenever they change\n");
+            for (SpriteManifest entry : new TreeMap<>(entries).values()) {
+                writer.write(KEY_PREFIX + entry.id + "=" + entry.category + "/" + entry.file + "," + entry.bytes
+                        + "," + entry.size.getWidth() + "," + entry.size.getHeight());
+
+                if (entry.hitbox != null) {
+                    writer.write("," + entry.hitbox.getOrigin().getX() + "," + entry.hitbox.getOrigin().getY()
+                            + "," + entry.hitbox.getSize().getWidth() + "," + entry.hitbox.getSize().getHeight());
+                }
+
+                writer.write("\n");
+
+                if (entry.mask != null) {
+                    StringBuilder rows = new StringBuilder();
+                    for (long row : entry.mask.getRows()) {
+                        rows.append(rows.length() > 0 ? "," : "").append(Long.toHexString(row));
+                    }
+
+                    writer.write(MASK_PREFIX + entry.id + "=" + rows + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a sprite from its file name, which starts with it
+     * @param path image file
+     * @return sprite id
+     */
+    private static Integer parseId(File path) {
+        String filename = path.getName();
+        return Integer.parseInt(filename.substring(0, filename.indexOf('-')));
+    }
+
+    /**
+     * @return sprite id
+     */
+    public Integer getId() {
+        return this.id;
+    }
+
+    /**
+     * @return dimensions of the sprite
+     */
+    public Size getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return opaque pixels of the sprite, null if it is too wide for a mask
+     */
+    public SpriteMask getMask() {
+        return this.mask;
+    }
+
+    /**
+     * Gets the part of the sprite that collides
+     * @return hitbox relative to the top left corner of the sprite, or the whole sprite if the manifest has none
+     */
+    public Bounds getHitbox() {
+        return this.hitbox != null ? this.hitbox : new Bounds(new Position(0, 0), this.size);
+    }
+}
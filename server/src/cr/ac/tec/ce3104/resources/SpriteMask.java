@@ -0,0 +1,134 @@
+package cr.ac.tec.ce3104.resources;
+
+import cr.ac.tec.ce3104.physics.Bounds;
+import cr.ac.tec.ce3104.physics.Position;
+import cr.ac.tec.ce3104.physics.Size;
+
+// 1-bit alpha mask of a sprite, one long per row with bit x set where column x is opaque. It also keeps the tight box
+// around the opaque pixels, so that most pairs whose rectangles touch are told apart without looking at any row
+public class SpriteMask {
+    // Rows are packed into a single long each
+    public static final Integer MAX_WIDTH = 64;
+
+    private final long[] rows;
+
+    // Tight box around the opaque pixels, relative to the top left corner of the sprite; empty if there are none
+    private final int left;
+    private final int top;
+    private final int right;
+    private final int bottom;
+
+    /**
+     * Creates a mask from its rows
+     * @param rows one long per row, bit x set where column x is opaque
+     */
+    public SpriteMask(long[] rows) {
+        this.rows = rows;
+
+        int left = MAX_WIDTH, top = rows.length, right = 0, bottom = 0;
+        for (int y = 0; y < rows.length; ++y) {
+            if (rows[y] != 0) {
+                left = Math.min(left, Long.numberOfTrailingZeros(rows[y]));
+                right = Math.max(right, MAX_WIDTH - Long.numberOfLeadingZeros(rows[y]));
+                top = Math.min(top, y);
+                bottom = y + 1;
+            }
+        }
+
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /**
+     * Builds the mask of everything that is opaque in any of several sprites, for animations
+     * @param sprites sprites to combine
+     * @return combined mask, or null if there are no sprites or one of them has no mask
+     */
+    public static SpriteMask union(Sprite[] sprites) {
+        if (sprites.length == 0) {
+            return null;
+        }
+
+        int height = 0;
+        for (Sprite sprite : sprites) {
+            if (sprite.getMask() == null) {
+                return null;
+            }
+
+            height = Math.max(height, sprite.getMask().rows.length);
+        }
+
+        long[] rows = new long[height];
+        for (Sprite sprite : sprites) {
+            long[] spriteRows = sprite.getMask().rows;
+            for (int y = 0; y < spriteRows.length; ++y) {
+                rows[y] |= spriteRows[y];
+            }
+        }
+
+        return new SpriteMask(rows);
+    }
+
+    /**
+     * Tests whether two boxes actually share an opaque pixel. A box without a mask is fully opaque. The boxes are
+     * expected to overlap already
+     * @param a mask of the first box, or null
+     * @param ax horizontal coordinate of the first box
+     * @param ay vertical coordinate of the first box
+     * @param aw width of the first box
+     * @param ah height of the first box
+     * @param b mask of the second box, or null
+     * @param bx horizontal coordinate of the second box
+     * @param by vertical coordinate of the second box
+     * @param bw width of the second box
+     * @param bh height of the second box
+     * @return true if they collide, false otherwise
+     */
+    public static boolean collide(SpriteMask a, int ax, int ay, int aw, int ah, SpriteMask b, int bx, int by, int bw, int bh) {
+        if (a == null && b == null) {
+            return true;
+        }
+
+        // Tight boxes first, in game coordinates
+        int aLeft = ax + (a != null ? a.left : 0), aRight = ax + (a != null ? a.right : aw);
+        int aTop = ay + (a != null ? a.top : 0), aBottom = ay + (a != null ? a.bottom : ah);
+        int bLeft = bx + (b != null ? b.left : 0), bRight = bx + (b != null ? b.right : bw);
+        int bTop = by + (b != null ? b.top : 0), bBottom = by + (b != null ? b.bottom : bh);
+
+        int left = Math.max(aLeft, bLeft), right = Math.min(aRight, bRight);
+        int top = Math.max(aTop, bTop), bottom = Math.min(aBottom, bBottom);
+        if (left >= right || top >= bottom) {
+            return false;
+        }
+
+        // Only the rows and columns both boxes cover are compared, shifted so that bit 0 is column `left`
+        long columns = right - left >= MAX_WIDTH ? -1L : (1L << (right - left)) - 1;
+        for (int y = top; y < bottom; ++y) {
+            long rowA = a != null ? a.rows[y - ay] >>> (left - ax) : -1L;
+            long rowB = b != null ? b.rows[y - by] >>> (left - bx) : -1L;
+            if ((rowA & rowB & columns) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the tight box around the opaque pixels
+     * @return box relative to the top left corner of the sprite, empty if every pixel is transparent
+     */
+    public Bounds getTightBounds() {
+        return new Bounds(new Position(this.left, this.top), new Size(Math.max(0, this.right - this.left), Math.max(0, this.bottom - this.top)));
+    }
+
+    /**
+     * Gets the rows of the mask
+     * @return one long per row, bit x set where column x is opaque
+     */
+    public long[] getRows() {
+        return this.rows;
+    }
+}
@@ -0,0 +1,143 @@
+package cr.ac.tec.ce3104.scheduling;
+
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A worker thread that runs the game loops of the games placed on it. Games on different shards never share a thread
+public class GameShard {
+    private final Integer index;
+    private final Thread thread;
+
+    // Work submitted by any thread, run in order by the shard thread
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+    // Load, written by the games of this shard and read by anyone
+    private final AtomicInteger games = new AtomicInteger(0);
+    private final AtomicInteger entities = new AtomicInteger(0);
+    private final AtomicLong ticks = new AtomicLong(0);
+
+    // Last tick rate sample
+    private Long sampledTicks = 0L;
+    private Long sampledAt = System.nanoTime();
+
+    /**
+     * Creates a shard. Its thread does not run until `start()` is called
+     * @param index shard index, used to name its thread
+     */
+    public GameShard(Integer index) {
+        this.index = index;
+        this.thread = new Thread(this::run, "game-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the shard thread
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Runs a task on the shard thread
+     * @param task task to run
+     */
+    public void execute(Runnable task) {
+        this.tasks.add(task);
+    }
+
+    /**
+     * Counts a game that was just placed on this shard
+     */
+    public void adopt() {
+        this.games.incrementAndGet();
+    }
+
+    /**
+     * Stops counting a game that ended, along with its entities
+     * @param entities number of entities the game last reported
+     */
+    public void release(Integer entities) {
+        this.games.decrementAndGet();
+        this.entities.addAndGet(-entities);
+    }
+
+    /**
+     * Updates the entity count after a game of this shard spawned or deleted entities
+     * @param delta change in the number of entities
+     */
+    public void addEntities(Integer delta) {
+        this.entities.addAndGet(delta);
+    }
+
+    /**
+     * Counts a simulation tick of a game of this shard
+     */
+    public void onTick() {
+        this.ticks.incrementAndGet();
+    }
+
+    /**
+     * Gets the shard index
+     * @return index within its group
+     */
+    public Integer getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Gets the number of games placed on this shard
+     * @return number of games
+     */
+    public Integer getGames() {
+        return this.games.get();
+    }
+
+    /**
+     * Gets the number of entities in the games of this shard
+     * @return number of entities
+     */
+    public Integer getEntities() {
+        return this.entities.get();
+    }
+
+    /**
+     * Computes how many ticks per second the games of this shard ran since the previous call
+     * @return tick rate
+     */
+    public synchronized Double sampleTickRate() {
+        Long now = System.nanoTime();
+        Long ticks = this.ticks.get();
+
+        Double rate = (ticks - this.sampledTicks) * 1e9 / Math.max(1L, now - this.sampledAt);
+        this.sampledTicks = ticks;
+        this.sampledAt = now;
+
+        return rate;
+    }
+
+    /**
+     * Shard thread body, runs tasks as they arrive
+     */
+    private void run() {
+        while (true) {
+            Runnable task;
+            try {
+                task = this.tasks.take();
+            } catch (InterruptedException exception) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (Exception exception) {
+                // A failing game does not take the other games of the shard down
+                Log.getInstance().error(LogCategory.SERVER, "[SERVER] Task failed on game shard " + this.index, exception);
+            }
+        }
+    }
+}
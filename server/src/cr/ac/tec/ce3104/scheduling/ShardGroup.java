@@ -0,0 +1,48 @@
+package cr.ac.tec.ce3104.scheduling;
+
+// Fixed set of game shards among which new games are placed
+public class ShardGroup {
+    private final GameShard[] shards;
+
+    /**
+     * Creates and starts a fixed number of shards
+     * @param size number of shards
+     */
+    public ShardGroup(Integer size) {
+        this.shards = new GameShard[size];
+        for (Integer i = 0; i < size; ++i) {
+            this.shards[i] = new GameShard(i);
+            this.shards[i].start();
+        }
+    }
+
+    /**
+     * Chooses the shard for a new game: the one with the fewest games, or with the fewest entities among those
+     * tied. The game is counted on it right away, so that concurrent placements spread out
+     * @return shard the game must run on
+     */
+    public GameShard place() {
+        GameShard chosen;
+        synchronized (this) {
+            chosen = this.shards[0];
+            for (GameShard shard : this.shards) {
+                Integer games = shard.getGames();
+                if (games < chosen.getGames() || (games.equals(chosen.getGames()) && shard.getEntities() < chosen.getEntities())) {
+                    chosen = shard;
+                }
+            }
+
+            chosen.adopt();
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Gets the shards of this group
+     * @return shards
+     */
+    public GameShard[] getShards() {
+        return this.shards;
+    }
+}
@@ -0,0 +1,114 @@
+package cr.ac.tec.ce3104.scheduling;
+
+import cr.ac.tec.ce3104.logging.Log;
+import cr.ac.tec.ce3104.logging.LogCategory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Runs client sessions and game tasks, each one on its own platform or virtual thread
+public class TaskExecutor {
+    // Singleton pattern
+    private static TaskExecutor instance;
+
+    private final ThreadMode mode;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Selects the kind of threads to use. Must be called before the first task is run
+     * @param mode requested thread mode
+     */
+    public static synchronized void configure(ThreadMode mode) {
+        assert instance == null;
+        instance = new TaskExecutor(mode);
+    }
+
+    /**
+     * Gets the active executor. If it has not been configured before, platform threads are used
+     * @return reference to a single instance of the executor
+     */
+    public static synchronized TaskExecutor getInstance() {
+        if (instance == null) {
+            instance = new TaskExecutor(ThreadMode.PLATFORM);
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor since the class is a Singleton
+     * @param mode requested thread mode
+     */
+    private TaskExecutor(ThreadMode mode) {
+        ExecutorService virtual = mode == ThreadMode.VIRTUAL ? TaskExecutor.newVirtualExecutor() : null;
+        if (virtual != null) {
+            this.mode = ThreadMode.VIRTUAL;
+            this.executor = virtual;
+        } else {
+            // Idle threads are reused instead of creating a new one per task
+            this.mode = ThreadMode.PLATFORM;
+            this.executor = Executors.newCachedThreadPool();
+        }
+
+        // A single thread only counts delays, the tasks themselves run on the executor
+        this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "task-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a virtual thread per task executor. It is looked up reflectively so that the server
+     * still builds and runs on runtimes that predate virtual threads (Java 21)
+     * @return virtual thread executor, or null if the runtime does not support them
+     */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException exception) {
+            Log.getInstance().warn(LogCategory.SERVER, "[SERVER] Virtual threads are not available on this runtime, using platform threads");
+            return null;
+        }
+    }
+
+    /**
+     * Runs a task, which is allowed to block, on a thread of its own
+     * @param task task to run
+     * @return handle that can be used to cancel the task
+     */
+    public Future<?> execute(Runnable task) {
+        return this.executor.submit(task);
+    }
+
+    /**
+     * Runs a task on a thread of its own once a delay has elapsed
+     * @param task task to run
+     * @param delayMillis delay in milliseconds
+     * @return handle that can be used to cancel the task before it starts
+     */
+    public Future<?> schedule(Runnable task, Integer delayMillis) {
+        return this.timer.schedule(() -> this.executor.submit(task), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a task on a thread of its own at a fixed rate, starting one period from now
+     * @param task task to run
+     * @param periodNanos time between the start of two runs, in nanoseconds
+     * @return handle that can be used to stop further runs
+     */
+    public Future<?> repeat(Runnable task, Long periodNanos) {
+        return this.timer.scheduleAtFixedRate(() -> this.executor.submit(task), periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the kind of threads actually in use
+     * @return thread mode
+     */
+    public ThreadMode getMode() {
+        return this.mode;
+    }
+}
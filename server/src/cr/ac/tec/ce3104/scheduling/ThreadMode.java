@@ -0,0 +1,23 @@
+package cr.ac.tec.ce3104.scheduling;
+
+// Kinds of threads on which client sessions and game tasks run
+public enum ThreadMode {
+    // One operating system thread per session or task
+    PLATFORM,
+    // One virtual thread per session or task, multiplexed over a few carrier threads
+    VIRTUAL;
+
+    /**
+     * Parses a thread mode from its textualization
+     * @param source representative text
+     * @return respective thread mode
+     * @throws IllegalArgumentException if the text names no thread mode
+     */
+    public static ThreadMode parse(String source) {
+        return switch (source) {
+            case "platform" -> ThreadMode.PLATFORM;
+            case "virtual" -> ThreadMode.VIRTUAL;
+            default -> throw new IllegalArgumentException("unknown thread mode: " + source);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package cr.ac.tec.ce3104.scheduling;
+
+// Handle to a task that waits in the timer wheel
+public class Timeout {
+    private final Runnable task;
+    private Long rounds;
+    private volatile Boolean cancelled = false;
+
+    /**
+     * Creates a timer
+     * @param task task to run when the timer expires
+     * @param rounds full revolutions of the wheel to wait before the timer's bucket counts
+     */
+    Timeout(Runnable task, Long rounds) {
+        this.task = task;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Prevents the task from running, if it did not start yet. Cancelled timers are dropped from the wheel
+     * the next time their bucket is reached
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Indicates whether the timer was cancelled
+     * @return true if the task will not run, false otherwise
+     */
+    public Boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Counts one visit of the wheel to the timer's bucket. Only called by the wheel
+     * @return true if the timer expires on this visit, false otherwise
+     */
+    Boolean elapseRound() {
+        if (this.rounds == 0) {
+            return true;
+        }
+
+        --this.rounds;
+        return false;
+    }
+
+    /**
+     * Runs the task unless the timer was cancelled in the meantime
+     */
+    void run() {
+        if (!this.cancelled) {
+            this.task.run();
+        }
+    }
+}
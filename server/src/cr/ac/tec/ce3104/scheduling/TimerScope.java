@@ -0,0 +1,74 @@
+package cr.ac.tec.ce3104.scheduling;
+
+import java.util.HashSet;
+
+// Timers that share a lifetime, such as those of a game. Closing the scope cancels every timer still pending and
+// refuses new ones, so nothing outlives its owner
+public class TimerScope {
+    private final HashSet<Timeout> pending = new HashSet<>();
+    private Boolean closed = false;
+
+    /**
+     * Runs a task once a delay has elapsed, unless the scope is closed before that
+     * @param task task to run
+     * @param delayMillis delay in milliseconds
+     * @return handle that can be used to cancel the task before it starts, or null if the scope is closed
+     */
+    public synchronized Timeout schedule(Runnable task, Integer delayMillis) {
+        if (this.closed) {
+            return null;
+        }
+
+        Timeout[] self = new Timeout[1];
+        self[0] = TimerWheel.getInstance().schedule(() -> {
+            if (this.forget(self[0])) {
+                task.run();
+            }
+        }, delayMillis);
+
+        this.pending.add(self[0]);
+        return self[0];
+    }
+
+    /**
+     * Cancels a timer of the scope before it runs
+     * @param timeout timer to cancel, ignored if null
+     */
+    public synchronized void cancel(Timeout timeout) {
+        if (timeout != null) {
+            timeout.cancel();
+            this.pending.remove(timeout);
+        }
+    }
+
+    /**
+     * Cancels every pending timer. Timers scheduled afterwards never run
+     */
+    public synchronized void close() {
+        this.closed = true;
+
+        for (Timeout timeout : this.pending) {
+            timeout.cancel();
+        }
+
+        this.pending.clear();
+    }
+
+    /**
+     * Gets how many timers of the scope have not expired nor been cancelled by closing it
+     * @return number of pending timers
+     */
+    public synchronized Integer getPending() {
+        return this.pending.size();
+    }
+
+    /**
+     * Stops tracking a timer that expired
+     * @param timeout expired timer
+     * @return true if the task should still run, false if the scope was closed
+     */
+    private synchronized Boolean forget(Timeout timeout) {
+        this.pending.remove(timeout);
+        return !this.closed;
+    }
+}
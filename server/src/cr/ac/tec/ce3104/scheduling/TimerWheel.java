@@ -0,0 +1,109 @@
+package cr.ac.tec.ce3104.scheduling;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Hashed timer wheel for game timers. Timers are hashed into buckets by the tick they expire on, so scheduling and
+// cancelling are constant time however many are pending, and a single thread counts ticks for all of them. Expired
+// tasks run on the task executor
+public class TimerWheel {
+    // Game delays are in the hundreds of milliseconds, so this is precise enough
+    private static final Integer TICK_MILLIS = 10;
+    // One revolution spans a bit over five seconds, longer delays wait some extra revolutions
+    private static final Integer WHEEL_SIZE = 512;
+
+    // Singleton pattern
+    private static TimerWheel instance;
+
+    private final List<LinkedList<Timeout>> buckets = new ArrayList<>();
+    private final ScheduledExecutorService driver;
+    private Long ticks = 0L;
+    private Integer pending = 0;
+
+    /**
+     * Gets the shared timer wheel
+     * @return reference to a single instance of the timer wheel
+     */
+    public static synchronized TimerWheel getInstance() {
+        if (instance == null) {
+            instance = new TimerWheel();
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor since the class is a Singleton
+     */
+    private TimerWheel() {
+        for (int i = 0; i < WHEEL_SIZE; ++i) {
+            this.buckets.add(new LinkedList<>());
+        }
+
+        this.driver = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "timer-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.driver.scheduleAtFixedRate(this::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a task on the task executor once a delay has elapsed
+     * @param task task to run
+     * @param delayMillis delay in milliseconds, rounded up to whole ticks
+     * @return handle that can be used to cancel the task before it starts
+     */
+    public synchronized Timeout schedule(Runnable task, Integer delayMillis) {
+        Long delayTicks = Math.max(1L, (delayMillis + TICK_MILLIS - 1) / TICK_MILLIS);
+        Long deadline = this.ticks + delayTicks;
+
+        // The bucket of the deadline is visited once per revolution, the timer only expires on the last visit
+        Timeout timeout = new Timeout(task, (delayTicks - 1) / WHEEL_SIZE);
+        this.buckets.get((int)(deadline % WHEEL_SIZE)).add(timeout);
+        ++this.pending;
+
+        return timeout;
+    }
+
+    /**
+     * Gets how many timers are waiting in the wheel, including cancelled ones that were not reached yet
+     * @return number of pending timers
+     */
+    public synchronized Integer getPending() {
+        return this.pending;
+    }
+
+    /**
+     * Moves the wheel forward by one tick, running whatever expires on it
+     */
+    private void advance() {
+        List<Timeout> expired = new ArrayList<>();
+
+        synchronized (this) {
+            ++this.ticks;
+
+            Iterator<Timeout> iterator = this.buckets.get((int)(this.ticks % WHEEL_SIZE)).iterator();
+            while (iterator.hasNext()) {
+                Timeout timeout = iterator.next();
+                if (timeout.isCancelled() || timeout.elapseRound()) {
+                    iterator.remove();
+                    --this.pending;
+
+                    if (!timeout.isCancelled()) {
+                        expired.add(timeout);
+                    }
+                }
+            }
+        }
+
+        for (Timeout timeout : expired) {
+            TaskExecutor.getInstance().execute(timeout::run);
+        }
+    }
+}